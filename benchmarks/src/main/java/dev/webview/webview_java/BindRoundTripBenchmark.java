@@ -0,0 +1,81 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full JS -> Java -> JS bind round trip on the
+ * {@link HeadlessWebviewNative} backend, so it runs without a display.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class BindRoundTripBenchmark {
+    private static final String ARGS = "[\"hello\",1234,{\"nested\":true}]";
+
+    private Webview webview;
+    private HeadlessWebviewNative.Window window;
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+        this.webview.bind("sync", (req) -> req);
+        this.webview.bind("async", (req) -> req, true);
+        this.webview.runAsync();
+
+        this.window = HeadlessWebviewNative.get().getWindow(this.webview);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public String sync() throws Exception {
+        return this.window.call("sync", ARGS).get();
+    }
+
+    @Benchmark
+    public String async() throws Exception {
+        return this.window.call("async", ARGS).get();
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sun.jna.Callback;
+import com.sun.jna.CallbackReference;
+
+/**
+ * Compares the Java side cost of dispatching a burst of tasks.
+ * <ul>
+ * <li>{@code perTaskCallback} is the old path: a fresh dispatch callback per
+ * task, each of which JNA has to build a native trampoline for.</li>
+ * <li>{@code queued} is the current path: one persistent callback and a
+ * lock-free queue, drained in batches.</li>
+ * </ul>
+ * Neither benchmark calls into libwebview, so they can run without a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final int BURST = 500;
+
+    /**
+     * Same signature as {@link WebviewNative.DispatchCallback}, declared here so
+     * that JNA doesn't initialize (and load) {@link WebviewNative} to look up the
+     * library options.
+     */
+    public static interface BenchDispatchCallback extends Callback {
+        void callback(long $pointer, long arg);
+    }
+
+    private _DispatchQueue queue;
+    private int wakeups;
+
+    @Setup
+    public void setup() {
+        WebviewMetrics metrics = new WebviewMetrics(() -> this.queue.depth());
+        this.queue = new _DispatchQueue((callback) -> this.wakeups++, metrics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void perTaskCallback(Blackhole bh) {
+        for (int i = 0; i < BURST; i++) {
+            Runnable task = () -> bh.consume(this);
+            BenchDispatchCallback callback = ($pointer, arg) -> task.run();
+            bh.consume(CallbackReference.getFunctionPointer(callback));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void queued(Blackhole bh) {
+        for (int i = 0; i < BURST; i++) {
+            this.queue.enqueue(() -> bh.consume(this));
+        }
+
+        // Pretend to be the event loop.
+        while (this.queue.depth() > 0) {
+            this.queue.drain();
+        }
+
+        bh.consume(this.wakeups);
+    }
+
+}
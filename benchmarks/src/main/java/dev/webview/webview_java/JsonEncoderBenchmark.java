@@ -0,0 +1,201 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+
+/**
+ * Compares {@link _JsonEncoder} against the escaping that used to live in
+ * {@link _WebviewUtil}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonEncoderBenchmark {
+
+    @Param({
+            "ASCII",
+            "CJK",
+            "EMOJI"
+    })
+    public Payloads.Kind kind;
+
+    @Param({
+            "100",
+            "10000",
+            "1000000",
+            "10000000"
+    })
+    public int size;
+
+    private String payload;
+
+    @Setup
+    public void setup() {
+        this.payload = Payloads.generate(this.kind, this.size);
+    }
+
+    @Benchmark
+    public String legacyJsonEscape() {
+        return Legacy.jsonEscape(this.payload);
+    }
+
+    @Benchmark
+    public String jsonEscape() {
+        return _JsonEncoder.encode(this.payload, _JsonEncoder.JSON);
+    }
+
+    @Benchmark
+    public String legacyForceSafeChars() {
+        return Legacy.forceSafeChars(this.payload);
+    }
+
+    @Benchmark
+    public String forceSafeChars() {
+        return _JsonEncoder.encode(this.payload, _JsonEncoder.SAFE);
+    }
+
+    @Benchmark
+    public Memory forceSafeCharsToMemory() {
+        return _JsonEncoder.encodeToMemory(this.payload, _JsonEncoder.SAFE);
+    }
+
+    /**
+     * A verbatim copy of the old implementation, kept as the baseline.
+     */
+    static class Legacy {
+
+        static String jsonEscape(String input) {
+            char[] chars = input.toCharArray();
+
+            StringBuilder output = new StringBuilder();
+
+            for (int i = 0; i < chars.length; i++) {
+                char ch = chars[i];
+
+                switch (ch) {
+                    case 0: {
+                        output.append("\\u0000");
+                        break;
+                    }
+
+                    case '\n': {
+                        output.append("\\n");
+                        break;
+                    }
+
+                    case '\t': {
+                        output.append("\\t");
+                        break;
+                    }
+
+                    case '\r': {
+                        output.append("\\r");
+                        break;
+                    }
+
+                    case '\\': {
+                        output.append("\\\\");
+                        break;
+                    }
+
+                    case '"': {
+                        output.append("\\\"");
+                        break;
+                    }
+
+                    case '\b': {
+                        output.append("\\b");
+                        break;
+                    }
+
+                    case '\f': {
+                        output.append("\\f");
+                        break;
+                    }
+
+                    default: {
+                        if (ch > 127) {
+                            output.append("\\u").append(String.format("%04x", (int) ch));
+                        } else {
+                            output.append(ch);
+                        }
+
+                        break;
+                    }
+                }
+            }
+
+            return output.toString();
+        }
+
+        static String forceSafeChars(String input) {
+            char[] chars = input.toCharArray();
+
+            StringBuilder output = new StringBuilder();
+
+            for (int i = 0; i < chars.length; i++) {
+                char ch = chars[i];
+
+                switch (ch) {
+                    case 0: {
+                        output.append("\\u0000");
+                        break;
+                    }
+
+                    default: {
+                        if (ch > 127) {
+                            output.append("\\u").append(String.format("%04x", (int) ch));
+                        } else {
+                            output.append(ch);
+                        }
+
+                        break;
+                    }
+                }
+            }
+
+            return output.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.casterlabs.commons.io.streams.StreamUtil;
+
+/**
+ * Measures the startup cost of getting the native library onto disk.
+ * <ul>
+ * <li>{@code legacy} is the old behavior: delete and rewrite the library on
+ * every start.</li>
+ * <li>{@code cold} is the first start with an empty cache.</li>
+ * <li>{@code warm} is every start after that.</li>
+ * </ul>
+ * Nothing gets loaded, so this runs on any platform.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+public class NativeExtractionBenchmark {
+    private static final String RESOURCE = "/dev/webview/webview_java/natives/x86_64/linux/gnu/libwebview.so";
+
+    private File coldRoot;
+    private File warmRoot;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        this.warmRoot = Files.createTempDirectory("webview-bench-warm").toFile();
+        _NativeLibraryCache.extract(RESOURCE, this.warmRoot);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() throws IOException {
+        this.coldRoot = Files.createTempDirectory("webview-bench-cold").toFile();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() throws IOException {
+        delete(this.coldRoot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        delete(this.warmRoot);
+    }
+
+    @Benchmark
+    public File legacy() throws IOException {
+        File target = new File(this.coldRoot, new File(RESOURCE).getName());
+        if (target.exists()) {
+            target.delete();
+        }
+
+        try (InputStream in = WebviewNative.class.getResourceAsStream(RESOURCE)) {
+            Files.write(target.toPath(), StreamUtil.toBytes(in));
+        }
+
+        return target;
+    }
+
+    @Benchmark
+    public File cold() throws IOException {
+        return _NativeLibraryCache.extract(RESOURCE, this.coldRoot);
+    }
+
+    @Benchmark
+    public File warm() throws IOException {
+        return _NativeLibraryCache.extract(RESOURCE, this.warmRoot);
+    }
+
+    private static void delete(File root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            paths
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+}
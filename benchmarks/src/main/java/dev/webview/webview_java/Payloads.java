@@ -0,0 +1,105 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates deterministic text payloads for the escaping benchmarks.
+ */
+public class Payloads {
+
+    public enum Kind {
+        /**
+         * Mostly ASCII prose and JSON syntax, with the odd accented char.
+         */
+        ASCII,
+
+        /**
+         * Mostly CJK ideographs, with some ASCII punctuation.
+         */
+        CJK,
+
+        /**
+         * Mostly emoji (surrogate pairs), with some ASCII.
+         */
+        EMOJI;
+    }
+
+    /**
+     * @return a string whose UTF-8 encoding is roughly {@code utf8Size} bytes.
+     */
+    static String generate(Kind kind, int utf8Size) {
+        Random random = new Random(utf8Size * 31L + kind.ordinal());
+        StringBuilder sb = new StringBuilder(utf8Size);
+        int bytes = 0;
+
+        while (bytes < utf8Size) {
+            int roll = random.nextInt(100);
+
+            switch (kind) {
+                case ASCII:
+                    if (roll < 2) {
+                        sb.append('é');
+                        bytes += 2;
+                    } else if (roll < 6) {
+                        sb.append("\"\n".charAt(roll % 2));
+                        bytes++;
+                    } else {
+                        sb.append((char) ('a' + random.nextInt(26)));
+                        bytes++;
+                    }
+                    break;
+
+                case CJK:
+                    if (roll < 10) {
+                        sb.append(' ');
+                        bytes++;
+                    } else {
+                        sb.append((char) (0x4E00 + random.nextInt(0x5000)));
+                        bytes += 3;
+                    }
+                    break;
+
+                case EMOJI:
+                    if (roll < 20) {
+                        sb.append((char) ('a' + random.nextInt(26)));
+                        bytes++;
+                    } else {
+                        sb.appendCodePoint(0x1F600 + random.nextInt(0x50));
+                        bytes += 4;
+                    }
+                    break;
+            }
+        }
+
+        return sb.toString();
+    }
+
+    static int utf8Length(String str) {
+        return str.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+}
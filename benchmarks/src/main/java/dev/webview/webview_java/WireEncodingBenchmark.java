@@ -0,0 +1,106 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+
+/**
+ * Compares the cost of getting a bind result across the native boundary with
+ * {@link WireEncoding#ASCII} versus {@link WireEncoding#UTF8}. The resulting
+ * wire size (in bytes) of each payload is printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireEncodingBenchmark {
+
+    @Param({
+            "ASCII",
+            "CJK",
+            "EMOJI"
+    })
+    public Payloads.Kind kind;
+
+    @Param({
+            "100",
+            "10000",
+            "1000000"
+    })
+    public int size;
+
+    @Param({
+            "ASCII",
+            "UTF8"
+    })
+    public WireEncoding encoding;
+
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.payload = Payloads.generate(this.kind, this.size);
+
+        System.out.printf(
+            "\n[WireEncodingBenchmark] %s/%d/%s: %d bytes on the wire (%d bytes of UTF-8 input).\n",
+            this.kind, this.size, this.encoding,
+            _JsonEncoder.encodedLength(this.payload, this.encoding.safe),
+            Payloads.utf8Length(this.payload)
+        );
+    }
+
+    /**
+     * The path taken by bind results.
+     */
+    @Benchmark
+    public Memory bindResult() {
+        return _JsonEncoder.encodeToMemory(this.payload, this.encoding.safe);
+    }
+
+    /**
+     * The path taken by bind requests.
+     */
+    @Benchmark
+    public String bindRequest() {
+        return _JsonEncoder.encode(this.payload, this.encoding.safe);
+    }
+
+}
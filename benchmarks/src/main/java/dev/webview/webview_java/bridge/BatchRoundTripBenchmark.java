@@ -0,0 +1,113 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.webview.webview_java.HeadlessWebviewNative;
+import dev.webview.webview_java.Webview;
+import dev.webview.webview_java.bridge.JavascriptObjectBenchmark.BenchObject;
+
+/**
+ * Measures {@code calls} bridge calls made by the page at the same time, on
+ * the headless backend: {@code batched} is what BridgeScript.js sends when the
+ * calls are made in the same microtask (one BATCH message), {@code unbatched}
+ * is one message per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class BatchRoundTripBenchmark {
+
+    @Param({
+            "1",
+            "10",
+            "100"
+    })
+    public int calls;
+
+    private Webview webview;
+    private HeadlessWebviewNative.Window window;
+
+    private String callMessage;
+    private String batchMessage;
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+
+        BenchObject target = new BenchObject();
+        new WebviewBridge(this.webview).defineObject("Bench", target);
+
+        this.webview.runAsync();
+        this.window = HeadlessWebviewNative.get().getWindow(this.webview);
+
+        String call = "\"INVOKE\",{\"id\":" + target.getHandle() + ",\"function\":\"add\",\"arguments\":[1,2]}";
+        this.callMessage = '[' + call + ']';
+
+        StringBuilder batch = new StringBuilder("[\"BATCH\",[");
+        for (int i = 0; i < this.calls; i++) {
+            if (i > 0) batch.append(',');
+            batch.append('[').append(call).append(']');
+        }
+        this.batchMessage = batch.append("],\"bench\"]").toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public String batched() throws Exception {
+        return this.window.call("__bridgeInternal", this.batchMessage).get();
+    }
+
+    @Benchmark
+    public void unbatched() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[this.calls];
+        for (int i = 0; i < this.calls; i++) {
+            futures[i] = this.window.call("__bridgeInternal", this.callMessage);
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+}
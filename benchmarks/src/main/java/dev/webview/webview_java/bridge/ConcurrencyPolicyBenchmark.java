@@ -0,0 +1,145 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.webview.webview_java.HeadlessWebviewNative;
+import dev.webview.webview_java.Webview;
+
+/**
+ * Measures 16 overlapping calls that each take 1ms on an async bridge, under
+ * each {@link JavascriptConcurrency} mode. {@code reads} only reads a getter,
+ * {@code mixed} also calls a function in the middle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class ConcurrencyPolicyBenchmark {
+    private static final int CALLS = 16;
+    private static final long DELAY = 1;
+
+    @Param({
+            "SERIALIZED",
+            "READ_WRITE",
+            "PARALLEL"
+    })
+    public JavascriptConcurrency.Mode mode;
+
+    private Webview webview;
+    private HeadlessWebviewNative.Window window;
+
+    private String readMessage;
+    private String writeMessage;
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+
+        JavascriptObject target;
+        switch (this.mode) {
+            case SERIALIZED:
+                target = new SerializedObject();
+                break;
+            case READ_WRITE:
+                target = new ReadWriteObject();
+                break;
+            default:
+                target = new ParallelObject();
+                break;
+        }
+        new WebviewBridge(this.webview, true).defineObject("Target", target);
+
+        this.webview.runAsync();
+        this.window = HeadlessWebviewNative.get().getWindow(this.webview);
+
+        this.readMessage = "[\"GET\",{\"id\":" + target.getHandle() + ",\"property\":\"value\"}]";
+        this.writeMessage = "[\"INVOKE\",{\"id\":" + target.getHandle() + ",\"function\":\"work\",\"arguments\":[]}]";
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public void reads() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            futures[i] = this.window.call("__bridgeInternal", this.readMessage);
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+    @Benchmark
+    public void mixed() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            String message = (i == CALLS / 2) ? this.writeMessage : this.readMessage;
+            futures[i] = this.window.call("__bridgeInternal", message);
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+    public static class ParallelObject extends JavascriptObject {
+
+        @JavascriptGetter("value")
+        public int getValue() throws InterruptedException {
+            Thread.sleep(DELAY);
+            return 1;
+        }
+
+        @JavascriptFunction
+        public void work() throws InterruptedException {
+            Thread.sleep(DELAY);
+        }
+
+    }
+
+    @JavascriptConcurrency(JavascriptConcurrency.Mode.SERIALIZED)
+    public static class SerializedObject extends ParallelObject {
+    }
+
+    @JavascriptConcurrency(JavascriptConcurrency.Mode.READ_WRITE)
+    public static class ReadWriteObject extends ParallelObject {
+    }
+
+}
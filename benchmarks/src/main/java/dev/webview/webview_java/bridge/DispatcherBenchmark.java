@@ -0,0 +1,106 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.casterlabs.rakurai.json.Rson;
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.element.JsonNumber;
+import dev.webview.webview_java.bridge.JavascriptObjectBenchmark.BenchObject;
+
+/**
+ * Compares the dispatcher generated by the bridge processor (this module runs
+ * it) against the reflective one, for calls and for building the dispatcher
+ * itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+    private BenchObject object = new BenchObject();
+
+    private JavascriptObjectDispatcher generated;
+    private JavascriptObjectDispatcher reflective;
+
+    private JsonArray addArgs = new JsonArray(new JsonNumber(1), new JsonNumber(2));
+
+    @Setup
+    public void setup() {
+        this.generated = _BridgeSchema.of(BenchObject.class);
+        this.reflective = new _BridgeSchema(BenchObject.class);
+
+        if (this.generated instanceof _BridgeSchema) {
+            throw new IllegalStateException("The bridge processor didn't run on this module.");
+        }
+    }
+
+    @Benchmark
+    public JsonElement generatedGet() throws Throwable {
+        return this.generated.get(this.object, "count");
+    }
+
+    @Benchmark
+    public JsonElement reflectiveGet() throws Throwable {
+        return this.reflective.get(this.object, "count");
+    }
+
+    @Benchmark
+    public JsonElement generatedInvoke() throws Throwable {
+        return Rson.DEFAULT.toJson(this.generated.invoke(this.object, "add", this.addArgs));
+    }
+
+    @Benchmark
+    public JsonElement reflectiveInvoke() throws Throwable {
+        return Rson.DEFAULT.toJson(this.reflective.invoke(this.object, "add", this.addArgs));
+    }
+
+    @Benchmark
+    public JavascriptObjectDispatcher generatedCreate() throws Exception {
+        return (JavascriptObjectDispatcher) Class.forName(BenchObject.class.getName() + "$BridgeDispatcher")
+            .getConstructor()
+            .newInstance();
+    }
+
+    @Benchmark
+    public JavascriptObjectDispatcher reflectiveCreate() {
+        return new _BridgeSchema(BenchObject.class);
+    }
+
+}
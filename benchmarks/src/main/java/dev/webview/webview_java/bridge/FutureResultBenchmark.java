@@ -0,0 +1,127 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.webview.webview_java.HeadlessWebviewNative;
+import dev.webview.webview_java.Webview;
+
+/**
+ * Measures {@code calls} overlapping calls to a function that takes 5ms, on
+ * the headless backend (sync bridge). {@code blocking} sleeps in the function,
+ * so the calls queue up behind each other on the loop. {@code future} returns
+ * a CompletableFuture instead, so the calls overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class FutureResultBenchmark {
+    private static final long DELAY = 5;
+
+    @Param({
+            "1",
+            "16"
+    })
+    public int calls;
+
+    private Webview webview;
+    private HeadlessWebviewNative.Window window;
+
+    private String blockingMessage;
+    private String futureMessage;
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+
+        SlowObject target = new SlowObject();
+        new WebviewBridge(this.webview).defineObject("Slow", target);
+
+        this.webview.runAsync();
+        this.window = HeadlessWebviewNative.get().getWindow(this.webview);
+
+        this.blockingMessage = "[\"INVOKE\",{\"id\":" + target.getHandle() + ",\"function\":\"blocking\",\"arguments\":[]}]";
+        this.futureMessage = "[\"INVOKE\",{\"id\":" + target.getHandle() + ",\"function\":\"future\",\"arguments\":[]}]";
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public void blocking() throws Exception {
+        this.callAll(this.blockingMessage);
+    }
+
+    @Benchmark
+    public void future() throws Exception {
+        this.callAll(this.futureMessage);
+    }
+
+    private void callAll(String message) throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[this.calls];
+        for (int i = 0; i < this.calls; i++) {
+            futures[i] = this.window.call("__bridgeInternal", message);
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+    public static class SlowObject extends JavascriptObject {
+
+        @JavascriptFunction
+        public String blocking() throws InterruptedException {
+            Thread.sleep(DELAY);
+            return "done";
+        }
+
+        @JavascriptFunction
+        public CompletableFuture<String> future() {
+            return CompletableFuture.supplyAsync(
+                () -> "done",
+                CompletableFuture.delayedExecutor(DELAY, TimeUnit.MILLISECONDS)
+            );
+        }
+
+    }
+
+}
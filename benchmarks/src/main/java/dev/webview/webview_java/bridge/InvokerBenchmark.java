@@ -0,0 +1,141 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective member access the bridge used to do against the
+ * {@link _Invokers} it uses now, with the same pre-converted arguments. Run
+ * with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokerBenchmark {
+    private Target target = new Target();
+
+    private Method primitiveMethod;
+    private Method objectMethod;
+    private Field field;
+
+    private _Invokers.MethodInvoker primitiveInvoker;
+    private _Invokers.MethodInvoker objectInvoker;
+    private _Invokers.FieldGetter fieldGetter;
+
+    private Object[] primitiveArgs = {
+            1,
+            2L,
+            3.5d,
+            true
+    };
+    private Object[] objectArgs = {
+            "hello",
+            Arrays.asList("a", "b", "c"),
+            Map.of("key", "value")
+    };
+
+    @Setup
+    public void setup() throws Exception {
+        this.primitiveMethod = Target.class.getMethod("primitives", int.class, long.class, double.class, boolean.class);
+        this.objectMethod = Target.class.getMethod("objects", String.class, List.class, Map.class);
+        this.field = Target.class.getField("value");
+
+        this.primitiveInvoker = _Invokers.forMethod(this.primitiveMethod);
+        this.objectInvoker = _Invokers.forMethod(this.objectMethod);
+        this.fieldGetter = _Invokers.forGetter(this.field);
+    }
+
+    @Benchmark
+    public Object reflectivePrimitives() throws Throwable {
+        try {
+            return this.primitiveMethod.invoke(this.target, this.primitiveArgs);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Benchmark
+    public Object invokerPrimitives() throws Throwable {
+        return this.primitiveInvoker.invoke(this.target, this.primitiveArgs);
+    }
+
+    @Benchmark
+    public Object reflectiveObjects() throws Throwable {
+        try {
+            return this.objectMethod.invoke(this.target, this.objectArgs);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Benchmark
+    public Object invokerObjects() throws Throwable {
+        return this.objectInvoker.invoke(this.target, this.objectArgs);
+    }
+
+    @Benchmark
+    public Object reflectiveField() throws Throwable {
+        return this.field.get(this.target);
+    }
+
+    @Benchmark
+    public Object invokerField() throws Throwable {
+        return this.fieldGetter.get(this.target);
+    }
+
+    public static class Target {
+        public String value = "hello";
+
+        public double primitives(int a, long b, double c, boolean d) {
+            return d ? a + b + c : 0;
+        }
+
+        public String objects(String a, List<String> b, Map<String, String> c) {
+            return c.getOrDefault(a, b.get(0));
+        }
+
+    }
+
+}
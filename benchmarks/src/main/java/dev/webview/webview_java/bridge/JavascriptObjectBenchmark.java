@@ -0,0 +1,147 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.casterlabs.rakurai.json.Rson;
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.element.JsonNumber;
+import co.casterlabs.rakurai.json.element.JsonObject;
+import co.casterlabs.rakurai.json.element.JsonString;
+import dev.webview.webview_java.Webview;
+
+/**
+ * Measures {@link JavascriptObject}'s GET/SET/INVOKE dispatch, including the
+ * Rson conversion of arguments and results. This skips the IPC message
+ * handling, see {@link WebviewBridgeBenchmark} for that.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class JavascriptObjectBenchmark {
+    private Webview webview;
+    private WebviewBridge bridge;
+    private BenchObject object;
+
+    private JsonElement newCount = new JsonNumber(1234);
+    private JsonElement newLabel = new JsonString("world");
+    private JsonArray addArgs = new JsonArray(new JsonNumber(1), new JsonNumber(2));
+    private JsonArray echoArgs = new JsonArray(
+        new JsonString("hello"),
+        new JsonObject()
+            .put("a", 1)
+            .put("b", "two")
+            .put("c", new JsonArray(new JsonNumber(3), new JsonNumber(4)))
+    );
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+        this.bridge = new WebviewBridge(this.webview);
+        this.object = new BenchObject();
+        this.bridge.defineObject("Bench", this.object);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public JsonElement getField() throws Throwable {
+        return this.object.get("count", this.bridge);
+    }
+
+    @Benchmark
+    public JsonElement getViaGetter() throws Throwable {
+        return this.object.get("label", this.bridge);
+    }
+
+    @Benchmark
+    public void setField() throws Throwable {
+        this.object.set("count", this.newCount, this.bridge);
+    }
+
+    @Benchmark
+    public void setViaSetter() throws Throwable {
+        this.object.set("label", this.newLabel, this.bridge);
+    }
+
+    @Benchmark
+    public JsonElement invokePrimitives() throws Throwable {
+        return Rson.DEFAULT.toJson(this.object.invoke("add", this.addArgs, this.bridge));
+    }
+
+    @Benchmark
+    public JsonElement invokeObjects() throws Throwable {
+        return Rson.DEFAULT.toJson(this.object.invoke("echo", this.echoArgs, this.bridge));
+    }
+
+    public static class BenchObject extends JavascriptObject {
+
+        @JavascriptValue
+        public int count = 42;
+
+        private String label = "hello";
+
+        @JavascriptGetter("label")
+        public String getLabel() {
+            return this.label;
+        }
+
+        @JavascriptSetter("label")
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        @JavascriptFunction
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @JavascriptFunction
+        public JsonObject echo(String key, JsonObject value) {
+            return new JsonObject().put(key, value);
+        }
+
+    }
+
+}
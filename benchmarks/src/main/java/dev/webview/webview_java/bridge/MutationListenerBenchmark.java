@@ -0,0 +1,115 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.webview.webview_java.bridge.util.ReflectionFieldMutationListener;
+
+@SuppressWarnings("deprecation")
+/**
+ * Measures what watched fields cost the rest of the application: a fixed CPU
+ * workload is run while {@code watchedFields} listeners poll in the
+ * background. Compare against {@code watchedFields=0} to get the overhead. The
+ * {@code property} mode uses {@link JavascriptProperty}s instead, which should
+ * cost nothing while idle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationListenerBenchmark {
+
+    @Param({
+            "0",
+            "10",
+            "100",
+            "1000"
+    })
+    public int watchedFields;
+
+    @Param({
+            "polling",
+            "property"
+    })
+    public String mode;
+
+    private List<Object> holders = new ArrayList<>();
+    private List<ReflectionFieldMutationListener> listeners = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        Field field = Holder.class.getDeclaredField("value");
+
+        for (int i = 0; i < this.watchedFields; i++) {
+            if (this.mode.equals("property")) {
+                JavascriptProperty<String> property = new JavascriptProperty<>("hello");
+                property.onChange((v) -> {});
+                this.holders.add(property);
+                continue;
+            }
+
+            Holder holder = new Holder();
+            ReflectionFieldMutationListener listener = new ReflectionFieldMutationListener(field, holder);
+            listener.onMutate((v) -> {});
+
+            this.holders.add(holder); // Listeners only hold a weak reference.
+            this.listeners.add(listener);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.listeners.forEach(ReflectionFieldMutationListener::stopWatching);
+    }
+
+    @Benchmark
+    public void workload() {
+        Blackhole.consumeCPU(10_000);
+    }
+
+    public static class Holder {
+        public String value = "hello";
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.webview.webview_java.bridge.JavascriptObjectBenchmark.BenchObject;
+
+/**
+ * Measures the cost of creating a {@link JavascriptObject}.
+ * <ul>
+ * <li>{@code legacy} repeats the per-instance reflection scan that the
+ * constructor used to do.</li>
+ * <li>{@code cached} is the current constructor, which looks up the class'
+ * schema.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+    @Benchmark
+    public JavascriptObject cached() {
+        return new BenchObject();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        Map<String, Object> properties = new HashMap<>();
+        Map<String, Object> functions = new HashMap<>();
+        Map<String, Object> subObjects = new HashMap<>();
+
+        for (Field field : BenchObject.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+
+            if (JavascriptObject.class.isAssignableFrom(field.getType())) {
+                subObjects.put(field.getName(), field);
+            } else if (field.isAnnotationPresent(JavascriptValue.class)) {
+                JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
+                String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+                properties.put(name, field);
+            }
+        }
+
+        for (Method method : BenchObject.class.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) continue;
+
+            if (method.isAnnotationPresent(JavascriptFunction.class)) {
+                JavascriptFunction annotation = method.getAnnotation(JavascriptFunction.class);
+                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+                functions.put(name, method);
+            } else if (method.isAnnotationPresent(JavascriptGetter.class)) {
+                JavascriptGetter annotation = method.getAnnotation(JavascriptGetter.class);
+                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+                properties.put(name, method);
+            } else if (method.isAnnotationPresent(JavascriptSetter.class)) {
+                JavascriptSetter annotation = method.getAnnotation(JavascriptSetter.class);
+                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+                properties.put(name, method);
+            }
+        }
+
+        bh.consume(properties);
+        bh.consume(functions);
+        bh.consume(subObjects);
+        bh.consume(new BenchObject());
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import co.casterlabs.rakurai.json.Rson;
+
+/**
+ * Compares returning {@code lines} log lines as one list against returning a
+ * Stream that's pulled in chunks. The total time is similar, but the streamed
+ * result never holds more than a chunk in memory (run with
+ * {@code -prof gc} to see the allocation difference), and the loop is only
+ * blocked for one chunk at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamResultBenchmark {
+
+    @Param({
+            "10000",
+            "1000000"
+    })
+    public int lines;
+
+    @Benchmark
+    public String full() {
+        List<String> result = IntStream.range(0, this.lines)
+            .mapToObj((i) -> "Log line #" + i)
+            .collect(Collectors.toList());
+        return Rson.DEFAULT.toJson(result).toString();
+    }
+
+    @Benchmark
+    public void streamed(Blackhole blackhole) throws Throwable {
+        _ResultStream stream = _ResultStream.of(
+            IntStream.range(0, this.lines)
+                .mapToObj((i) -> "Log line #" + i)
+        );
+
+        while (!stream.isClosed()) {
+            blackhole.consume(stream.pull().toCompletableFuture().join());
+        }
+    }
+
+}
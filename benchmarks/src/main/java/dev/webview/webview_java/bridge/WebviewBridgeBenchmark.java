@@ -0,0 +1,112 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.webview.webview_java.HeadlessWebviewNative;
+import dev.webview.webview_java.Webview;
+import dev.webview.webview_java.bridge.JavascriptObjectBenchmark.BenchObject;
+
+/**
+ * Measures a bridge call from the page all the way back to the page, on the
+ * headless backend: IPC parsing, routing to the object, the call itself and
+ * the response. {@code objects} is how many objects are defined on the bridge,
+ * the target is always the last one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dwebview.native.backend=headless")
+public class WebviewBridgeBenchmark {
+
+    @Param({
+            "1",
+            "100"
+    })
+    public int objects;
+
+    private Webview webview;
+    private HeadlessWebviewNative.Window window;
+
+    private String getMessage;
+    private String setMessage;
+    private String invokeMessage;
+
+    @Setup
+    public void setup() {
+        this.webview = new Webview(false);
+        WebviewBridge bridge = new WebviewBridge(this.webview);
+
+        BenchObject target = null;
+        for (int i = 0; i < this.objects; i++) {
+            target = new BenchObject();
+            bridge.defineObject("Bench" + i, target);
+        }
+
+        this.webview.runAsync();
+        this.window = HeadlessWebviewNative.get().getWindow(this.webview);
+
+        int id = target.getHandle();
+        this.getMessage = "[\"GET\",{\"id\":" + id + ",\"property\":\"count\"}]";
+        this.setMessage = "[\"SET\",{\"id\":" + id + ",\"property\":\"count\",\"newValue\":1234}]";
+        this.invokeMessage = "[\"INVOKE\",{\"id\":" + id + ",\"function\":\"add\",\"arguments\":[1,2]}]";
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.webview.close();
+    }
+
+    @Benchmark
+    public String get() throws Exception {
+        return this.window.call("__bridgeInternal", this.getMessage).get();
+    }
+
+    @Benchmark
+    public String set() throws Exception {
+        return this.window.call("__bridgeInternal", this.setMessage).get();
+    }
+
+    @Benchmark
+    public String invoke() throws Exception {
+        return this.window.call("__bridgeInternal", this.invokeMessage).get();
+    }
+
+}
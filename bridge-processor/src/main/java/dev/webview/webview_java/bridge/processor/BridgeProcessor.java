@@ -0,0 +1,723 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code <Class>$BridgeDispatcher} for every concrete
+ * {@code JavascriptObject} subclass being compiled. The dispatcher calls the
+ * bridged members directly, so the bridge doesn't need any reflection to talk
+ * to them.
+ * 
+ * Classes with private bridged members (or inherited package-private members
+ * from another package) are skipped, they keep using the reflective
+ * dispatcher.
+ */
+@SupportedAnnotationTypes("*")
+public class BridgeProcessor extends AbstractProcessor {
+    static final String SUFFIX = "$BridgeDispatcher";
+
+    private static final String BRIDGE_PACKAGE = "dev.webview.webview_java.bridge";
+    private static final String JAVASCRIPT_OBJECT = BRIDGE_PACKAGE + ".JavascriptObject";
+    private static final String JAVASCRIPT_FUNCTION = BRIDGE_PACKAGE + ".JavascriptFunction";
+    private static final String JAVASCRIPT_GETTER = BRIDGE_PACKAGE + ".JavascriptGetter";
+    private static final String JAVASCRIPT_SETTER = BRIDGE_PACKAGE + ".JavascriptSetter";
+    private static final String JAVASCRIPT_VALUE = BRIDGE_PACKAGE + ".JavascriptValue";
+    private static final String JAVASCRIPT_PROPERTY = BRIDGE_PACKAGE + ".JavascriptProperty";
+    private static final String JAVASCRIPT_CONCURRENCY = BRIDGE_PACKAGE + ".JavascriptConcurrency";
+    private static final String JAVASCRIPT_PRIORITY = BRIDGE_PACKAGE + ".JavascriptPriority";
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement base = this.processingEnv.getElementUtils().getTypeElement(JAVASCRIPT_OBJECT);
+
+        if (base != null) {
+            for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+                this.visit(type, base);
+            }
+        }
+
+        if (round.processingOver() && !this.generated.isEmpty()) {
+            this.writeNativeImageConfig();
+        }
+
+        return false; // We don't claim anything.
+    }
+
+    private void visit(TypeElement type, TypeElement base) {
+        boolean isBridgeObject = (type.getKind() == ElementKind.CLASS) &&
+            !type.getModifiers().contains(Modifier.ABSTRACT) &&
+            this.processingEnv.getTypeUtils().isSubtype(
+                this.processingEnv.getTypeUtils().erasure(type.asType()),
+                this.processingEnv.getTypeUtils().erasure(base.asType())
+            );
+
+        if (isBridgeObject) {
+            try {
+                this.generate(type, base);
+            } catch (IOException e) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the bridge dispatcher: " + e, type);
+            }
+        }
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            this.visit(nested, base);
+        }
+    }
+
+    /* ---------------- */
+    /* Schema           */
+    /* ---------------- */
+
+    private static class Property {
+        ExecutableElement getter;
+        ExecutableElement setter;
+        VariableElement value;
+        TypeMirror observableType; // The T of a JavascriptProperty<T> field.
+        boolean allowGet;
+        boolean allowSet;
+        boolean cached;
+        String getConcurrency; // Null for the class's.
+        String setConcurrency;
+    }
+
+    private void generate(TypeElement type, TypeElement base) throws IOException {
+        if (!this.isReachable(type)) {
+            this.note(type, "is not reachable from its package");
+            return;
+        }
+
+        PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+
+        Map<String, ExecutableElement> functions = new LinkedHashMap<>();
+        Map<String, String> functionConcurrency = new LinkedHashMap<>();
+        Map<String, String> functionPriority = new LinkedHashMap<>();
+        Map<String, Property> properties = new LinkedHashMap<>();
+        Map<String, VariableElement> subObjects = new LinkedHashMap<>();
+        Map<String, VariableElement> watchedFields = new LinkedHashMap<>();
+        Map<String, VariableElement> observables = new LinkedHashMap<>();
+        List<Element> originating = new ArrayList<>();
+
+        // Walk from the top of the hierarchy down, same as the reflective dispatcher.
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement c = type; (c != null) && !c.equals(base); c = this.superclassOf(c)) {
+            hierarchy.push(c);
+        }
+
+        for (TypeElement c : hierarchy) {
+            originating.add(c);
+
+            for (VariableElement field : ElementFilter.fieldsIn(c.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) continue;
+
+                AnnotationMirror value = this.findAnnotation(field, JAVASCRIPT_VALUE);
+                boolean isSubObject = this.processingEnv.getTypeUtils().isSubtype(
+                    this.processingEnv.getTypeUtils().erasure(field.asType()),
+                    this.processingEnv.getTypeUtils().erasure(base.asType())
+                );
+
+                if (!isSubObject && (value == null)) continue;
+
+                if (!this.isAccessible(field, pkg)) {
+                    this.note(type, "has an inaccessible bridged field: " + field.getSimpleName());
+                    return;
+                }
+
+                if (isSubObject) {
+                    subObjects.put(field.getSimpleName().toString(), field);
+                } else {
+                    String name = this.nameOf(field, value);
+
+                    Property property = new Property();
+                    property.value = field;
+                    property.observableType = this.observableTypeOf(field);
+                    property.allowGet = (boolean) this.annotationValue(value, "allowGet");
+                    property.allowSet = (boolean) this.annotationValue(value, "allowSet");
+                    property.cached = (boolean) this.annotationValue(value, "cache");
+                    property.getConcurrency = this.enumValueOf(field, JAVASCRIPT_CONCURRENCY);
+                    property.setConcurrency = property.getConcurrency;
+                    properties.put(name, property);
+
+                    if (property.observableType != null) {
+                        observables.put(name, field);
+                    } else {
+                        property.allowSet &= !field.getModifiers().contains(Modifier.FINAL);
+                        observables.remove(name);
+
+                        if ((boolean) this.annotationValue(value, "watchForMutate")) {
+                            watchedFields.put(name, field);
+                        }
+                    }
+                }
+            }
+
+            for (ExecutableElement method : ElementFilter.methodsIn(c.getEnclosedElements())) {
+                if (method.getModifiers().contains(Modifier.STATIC)) continue;
+
+                AnnotationMirror function = this.findAnnotation(method, JAVASCRIPT_FUNCTION);
+                AnnotationMirror getter = this.findAnnotation(method, JAVASCRIPT_GETTER);
+                AnnotationMirror setter = this.findAnnotation(method, JAVASCRIPT_SETTER);
+
+                if ((function == null) && (getter == null) && (setter == null)) continue;
+
+                if (!this.isAccessible(method, pkg)) {
+                    this.note(type, "has an inaccessible bridged method: " + method.getSimpleName());
+                    return;
+                }
+
+                String concurrency = this.enumValueOf(method, JAVASCRIPT_CONCURRENCY);
+
+                if (function != null) {
+                    String name = this.nameOf(method, function);
+                    functions.put(name, method);
+                    functionConcurrency.put(name, concurrency);
+                    functionPriority.put(name, this.enumValueOf(method, JAVASCRIPT_PRIORITY));
+                } else if (getter != null) {
+                    Property property = properties.computeIfAbsent(this.nameOf(method, getter), (n) -> new Property());
+                    property.getter = method;
+                    property.cached |= (boolean) this.annotationValue(getter, "cache");
+                    if (concurrency != null) property.getConcurrency = concurrency;
+                } else {
+                    Property property = properties.computeIfAbsent(this.nameOf(method, setter), (n) -> new Property());
+                    property.setter = method;
+                    if (concurrency != null) property.setConcurrency = concurrency;
+                }
+            }
+        }
+
+        // Like @Inherited, the closest annotated class wins.
+        String classConcurrency = "PARALLEL";
+        for (TypeElement c = type; (c != null) && !c.equals(base); c = this.superclassOf(c)) {
+            String concurrency = this.enumValueOf(c, JAVASCRIPT_CONCURRENCY);
+            if (concurrency != null) {
+                classConcurrency = concurrency;
+                break;
+            }
+        }
+
+        String classPriority = "NORMAL";
+        for (TypeElement c = type; (c != null) && !c.equals(base); c = this.superclassOf(c)) {
+            String priority = this.enumValueOf(c, JAVASCRIPT_PRIORITY);
+            if (priority != null) {
+                classPriority = priority;
+                break;
+            }
+        }
+
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+        String qualifiedName = binaryName + SUFFIX;
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        String typeName = type.getQualifiedName().toString();
+
+        FileObject file = this.processingEnv.getFiler().createSourceFile(qualifiedName, originating.toArray(new Element[0]));
+        try (Writer writer = file.openWriter()) {
+            this.writeDispatcher(
+                writer, pkg, simpleName, typeName, functions, properties, subObjects, watchedFields, observables,
+                classConcurrency, functionConcurrency, classPriority, functionPriority
+            );
+        }
+
+        this.generated.add(qualifiedName);
+    }
+
+    /* ---------------- */
+    /* Code generation  */
+    /* ---------------- */
+
+    private void writeDispatcher(
+        Writer w, PackageElement pkg, String simpleName, String typeName,
+        Map<String, ExecutableElement> functions, Map<String, Property> properties,
+        Map<String, VariableElement> subObjects, Map<String, VariableElement> watchedFields,
+        Map<String, VariableElement> observables,
+        String classConcurrency, Map<String, String> functionConcurrency,
+        String classPriority, Map<String, String> functionPriority
+    ) throws IOException {
+        if (!pkg.isUnnamed()) {
+            w.write("package " + pkg.getQualifiedName() + ";\n\n");
+        }
+
+        w.write("// Generated by the webview_java bridge processor, do not edit.\n");
+        w.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        w.write("public final class " + simpleName + " implements " + BRIDGE_PACKAGE + ".JavascriptObjectDispatcher {\n");
+
+        // Names
+        w.write("    private static final java.util.List<String> FUNCTIONS = " + stringList(functions.keySet()) + ";\n");
+        w.write("    private static final java.util.List<String> PROPERTIES = " + stringList(properties.keySet()) + ";\n");
+
+        if (watchedFields.isEmpty()) {
+            w.write("    private static final java.util.Map<String, java.lang.reflect.Field> WATCHED_FIELDS = java.util.Collections.emptyMap();\n\n");
+        } else {
+            w.write("    private static final java.util.Map<String, java.lang.reflect.Field> WATCHED_FIELDS;\n");
+            w.write("    static {\n");
+            w.write("        java.util.Map<String, java.lang.reflect.Field> watched = new java.util.LinkedHashMap<>();\n");
+            w.write("        try {\n");
+            for (Map.Entry<String, VariableElement> entry : watchedFields.entrySet()) {
+                TypeElement declaring = (TypeElement) entry.getValue().getEnclosingElement();
+                w.write(
+                    "            watched.put(" + javaString(entry.getKey()) + ", Class.forName("
+                        + javaString(this.processingEnv.getElementUtils().getBinaryName(declaring).toString())
+                        + ", false, " + simpleName + ".class.getClassLoader()).getDeclaredField("
+                        + javaString(entry.getValue().getSimpleName().toString()) + "));\n"
+                );
+            }
+            w.write("        } catch (ReflectiveOperationException e) {\n");
+            w.write("            throw new ExceptionInInitializerError(e);\n");
+            w.write("        }\n");
+            w.write("        WATCHED_FIELDS = java.util.Collections.unmodifiableMap(watched);\n");
+            w.write("    }\n\n");
+        }
+
+        w.write("    @Override\n");
+        w.write("    public java.util.Collection<String> getFunctionNames() {\n");
+        w.write("        return FUNCTIONS;\n");
+        w.write("    }\n\n");
+
+        w.write("    @Override\n");
+        w.write("    public java.util.Collection<String> getPropertyNames() {\n");
+        w.write("        return PROPERTIES;\n");
+        w.write("    }\n\n");
+
+        w.write("    @Override\n");
+        w.write("    public java.util.Map<String, java.lang.reflect.Field> getWatchedFields() {\n");
+        w.write("        return WATCHED_FIELDS;\n");
+        w.write("    }\n\n");
+
+        // Observable properties
+        w.write("    @Override\n");
+        w.write("    public java.util.Map<String, " + JAVASCRIPT_PROPERTY + "<?>> getObservableProperties(" + JAVASCRIPT_OBJECT + " $instance) {\n");
+        if (observables.isEmpty()) {
+            w.write("        return java.util.Collections.emptyMap();\n");
+        } else {
+            w.write("        " + typeName + " $i = (" + typeName + ") $instance;\n");
+            w.write("        java.util.Map<String, " + JAVASCRIPT_PROPERTY + "<?>> result = new java.util.LinkedHashMap<>();\n");
+            for (Map.Entry<String, VariableElement> entry : observables.entrySet()) {
+                String field = entry.getValue().getSimpleName().toString();
+                w.write("        if ($i." + field + " != null) result.put(" + javaString(entry.getKey()) + ", $i." + field + ");\n");
+            }
+            w.write("        return result;\n");
+        }
+        w.write("    }\n\n");
+
+        // Sub objects
+        w.write("    @Override\n");
+        w.write("    public java.util.Map<String, " + JAVASCRIPT_OBJECT + "> getSubObjects(" + JAVASCRIPT_OBJECT + " $instance) {\n");
+        w.write("        " + typeName + " $i = (" + typeName + ") $instance;\n");
+        w.write("        java.util.Map<String, " + JAVASCRIPT_OBJECT + "> result = new java.util.LinkedHashMap<>();\n");
+        for (Map.Entry<String, VariableElement> entry : subObjects.entrySet()) {
+            w.write("        if ($i." + entry.getKey() + " != null) result.put(" + javaString(entry.getKey()) + ", $i." + entry.getKey() + ");\n");
+        }
+        w.write("        return result;\n");
+        w.write("    }\n\n");
+
+        // Define lines
+        w.write("    @Override\n");
+        w.write("    public java.util.List<String> getDefineLines(String path, int handle) {\n");
+        w.write("        java.util.List<String> lines = new java.util.ArrayList<>(" + (functions.size() + properties.size()) + ");\n");
+        for (String name : functions.keySet()) {
+            w.write("        lines.add(\"window.\" + path + " + javaString(".__internal.defineFunction(" + jsonString(name) + ",") + " + handle + \");\");\n");
+        }
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            w.write("        lines.add(\"window.\" + path + " + javaString(".__internal.defineProperty(" + jsonString(entry.getKey()) + "," + entry.getValue().cached + ");") + ");\n");
+        }
+        w.write("        return lines;\n");
+        w.write("    }\n\n");
+
+        // Concurrency
+        String mode = BRIDGE_PACKAGE + ".JavascriptConcurrency.Mode";
+
+        w.write("    @Override\n");
+        w.write("    public " + mode + " getFunctionConcurrency(String function) {\n");
+        w.write("        switch (function) {\n");
+        for (Map.Entry<String, String> entry : functionConcurrency.entrySet()) {
+            if (entry.getValue() == null) continue;
+            w.write("            case " + javaString(entry.getKey()) + ": return " + mode + "." + entry.getValue() + ";\n");
+        }
+        w.write("            default: return " + mode + "." + classConcurrency + ";\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        String level = BRIDGE_PACKAGE + ".JavascriptPriority.Level";
+
+        w.write("    @Override\n");
+        w.write("    public " + level + " getFunctionPriority(String function) {\n");
+        w.write("        switch (function) {\n");
+        for (Map.Entry<String, String> entry : functionPriority.entrySet()) {
+            if (entry.getValue() == null) continue;
+            w.write("            case " + javaString(entry.getKey()) + ": return " + level + "." + entry.getValue() + ";\n");
+        }
+        w.write("            default: return " + level + "." + classPriority + ";\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        w.write("    @Override\n");
+        w.write("    public " + mode + " getPropertyConcurrency(String property, boolean write) {\n");
+        w.write("        switch (property) {\n");
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            Property property = entry.getValue();
+            if ((property.getConcurrency == null) && (property.setConcurrency == null)) continue;
+
+            String get = property.getConcurrency == null ? classConcurrency : property.getConcurrency;
+            String set = property.setConcurrency == null ? classConcurrency : property.setConcurrency;
+            w.write("            case " + javaString(entry.getKey()) + ": return write ? " + mode + "." + set + " : " + mode + "." + get + ";\n");
+        }
+        w.write("            default: return " + mode + "." + classConcurrency + ";\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        // GET
+        w.write("    @Override\n");
+        w.write("    public co.casterlabs.rakurai.json.element.JsonElement get(" + JAVASCRIPT_OBJECT + " $instance, String property) throws Throwable {\n");
+        w.write("        " + typeName + " $i = (" + typeName + ") $instance;\n");
+        w.write("        switch (property) {\n");
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            Property property = entry.getValue();
+            w.write("            case " + javaString(entry.getKey()) + ":\n");
+            if (property.getter != null) {
+                w.write("                return co.casterlabs.rakurai.json.Rson.DEFAULT.toJson($i." + property.getter.getSimpleName() + "());\n");
+            } else if ((property.value != null) && property.allowGet && (property.observableType != null)) {
+                String field = "$i." + property.value.getSimpleName();
+                w.write("                return co.casterlabs.rakurai.json.Rson.DEFAULT.toJson(" + field + " == null ? null : " + field + ".get());\n");
+            } else if ((property.value != null) && property.allowGet) {
+                w.write("                return co.casterlabs.rakurai.json.Rson.DEFAULT.toJson($i." + property.value.getSimpleName() + ");\n");
+            } else {
+                w.write("                throw new UnsupportedOperationException(" + javaString("GET is not allowed for the field: " + entry.getKey()) + ");\n");
+            }
+        }
+        w.write("            default:\n");
+        w.write("                throw new IllegalArgumentException(\"Could not find property: \" + property);\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        // SET
+        w.write("    @Override\n");
+        w.write("    public void set(" + JAVASCRIPT_OBJECT + " $instance, String property, co.casterlabs.rakurai.json.element.JsonElement value) throws Throwable {\n");
+        w.write("        " + typeName + " $i = (" + typeName + ") $instance;\n");
+        w.write("        switch (property) {\n");
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            Property property = entry.getValue();
+            w.write("            case " + javaString(entry.getKey()) + ":\n");
+            if (property.setter != null) {
+                TypeMirror type = property.setter.getParameters().get(0).asType();
+                w.write("                $i." + property.setter.getSimpleName() + "(" + this.decodeNullable("value", type) + ");\n");
+                w.write("                return;\n");
+            } else if ((property.value != null) && property.allowSet && (property.observableType != null)) {
+                w.write("                ((" + JAVASCRIPT_PROPERTY + ") $i." + property.value.getSimpleName() + ").set(" + this.decodeNullable("value", property.observableType) + ");\n");
+                w.write("                return;\n");
+            } else if ((property.value != null) && property.allowSet) {
+                w.write("                $i." + property.value.getSimpleName() + " = " + this.decodeNullable("value", property.value.asType()) + ";\n");
+                w.write("                return;\n");
+            } else {
+                w.write("                throw new UnsupportedOperationException(" + javaString("SET is not allowed for the field: " + entry.getKey()) + ");\n");
+            }
+        }
+        w.write("            default:\n");
+        w.write("                throw new IllegalArgumentException(\"Could not find property: \" + property);\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        // INVOKE
+        w.write("    @Override\n");
+        w.write("    public Object invoke(" + JAVASCRIPT_OBJECT + " $instance, String function, co.casterlabs.rakurai.json.element.JsonArray arguments) throws Throwable {\n");
+        w.write("        " + typeName + " $i = (" + typeName + ") $instance;\n");
+        w.write("        switch (function) {\n");
+        for (Map.Entry<String, ExecutableElement> entry : functions.entrySet()) {
+            ExecutableElement method = entry.getValue();
+            List<? extends VariableElement> params = method.getParameters();
+
+            w.write("            case " + javaString(entry.getKey()) + ": {\n");
+            w.write("                if (arguments.size() != " + params.size() + ") {\n");
+            w.write("                    throw new IllegalArgumentException(\"The invoking arguments do not match the expected length: " + params.size() + "\");\n");
+            w.write("                }\n");
+
+            StringBuilder call = new StringBuilder("$i.").append(method.getSimpleName()).append('(');
+            for (int i = 0; i < params.size(); i++) {
+                if (i > 0) call.append(", ");
+                call.append(this.decode("arguments.get(" + i + ")", params.get(i).asType()));
+            }
+            call.append(')');
+
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                w.write("                " + call + ";\n");
+                w.write("                return null;\n");
+            } else {
+                w.write("                return " + call + ";\n");
+            }
+            w.write("            }\n");
+        }
+        w.write("            default:\n");
+        w.write("                throw new IllegalArgumentException(\"Could not find function: \" + function);\n");
+        w.write("        }\n");
+        w.write("    }\n\n");
+
+        w.write("}\n");
+    }
+
+    private String decode(String element, TypeMirror type) {
+        return BRIDGE_PACKAGE + ".JavascriptObjectDispatcher.decode(" + element + ", " + this.classLiteral(type) + ")";
+    }
+
+    private String decodeNullable(String element, TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return this.decode(element, type);
+        }
+        return element + ".isJsonNull() ? null : " + this.decode(element, type);
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return this.typeName(this.processingEnv.getTypeUtils().erasure(type)) + ".class";
+    }
+
+    private String typeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return this.typeName(((ArrayType) type).getComponentType()) + "[]";
+        } else {
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        }
+    }
+
+    /**
+     * Lets native-image know about the dispatchers, since they're looked up by
+     * name.
+     */
+    private void writeNativeImageConfig() {
+        StringBuilder json = new StringBuilder("[\n");
+        for (String name : this.generated) {
+            if (json.length() > 2) json.append(",\n");
+            json.append("  {\"name\": ").append(jsonString(name)).append(", \"methods\": [{\"name\": \"<init>\", \"parameterTypes\": []}]}");
+        }
+        json.append("\n]\n");
+
+        try {
+            FileObject file = this.processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT,
+                "",
+                "META-INF/native-image/dev.webview.webview_java/bridge-dispatchers/reflect-config.json"
+            );
+            try (Writer writer = file.openWriter()) {
+                writer.write(json.toString());
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to write the native-image config: " + e);
+        }
+    }
+
+    /* ---------------- */
+    /* Helpers          */
+    /* ---------------- */
+
+    /**
+     * @return the T of a {@code JavascriptProperty<T>} field, or null if the field
+     *         isn't one.
+     */
+    private TypeMirror observableTypeOf(VariableElement field) {
+        if (field.asType().getKind() != TypeKind.DECLARED) return null;
+
+        DeclaredType type = (DeclaredType) field.asType();
+        if (!((TypeElement) type.asElement()).getQualifiedName().contentEquals(JAVASCRIPT_PROPERTY)) return null;
+
+        TypeMirror object = this.processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+        if (type.getTypeArguments().isEmpty()) return object;
+
+        TypeMirror argument = type.getTypeArguments().get(0);
+        switch (argument.getKind()) {
+            case DECLARED:
+            case ARRAY:
+            case TYPEVAR:
+                return this.processingEnv.getTypeUtils().erasure(argument);
+
+            case WILDCARD: {
+                TypeMirror bound = ((WildcardType) argument).getExtendsBound();
+                return bound == null ? object : this.processingEnv.getTypeUtils().erasure(bound);
+            }
+
+            default:
+                return object;
+        }
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    /**
+     * @return whether or not the generated class (a top level class in the same
+     *         package) can reference the type.
+     */
+    private boolean isReachable(TypeElement type) {
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (!(e instanceof TypeElement)) return false;
+
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if ((t.getNestingKind() == NestingKind.LOCAL) || (t.getNestingKind() == NestingKind.ANONYMOUS)) return false;
+        }
+        return true;
+    }
+
+    private boolean isAccessible(Element member, PackageElement from) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (member.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return this.processingEnv.getElementUtils().getPackageOf(member).equals(from);
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException("Unknown annotation value: " + name);
+    }
+
+    /**
+     * @return the name of the enum constant in the annotation's value, or null if
+     *         the element doesn't have the annotation.
+     */
+    private String enumValueOf(Element element, String annotationType) {
+        AnnotationMirror annotation = this.findAnnotation(element, annotationType);
+        if (annotation == null) return null;
+        return ((VariableElement) this.annotationValue(annotation, "value")).getSimpleName().toString();
+    }
+
+    private String nameOf(Element element, AnnotationMirror annotation) {
+        String value = (String) this.annotationValue(annotation, "value");
+        return value.isEmpty() ? element.getSimpleName().toString() : value;
+    }
+
+    private void note(TypeElement type, String reason) {
+        this.processingEnv.getMessager().printMessage(
+            Diagnostic.Kind.NOTE,
+            type.getQualifiedName() + " " + reason + ", it will use the reflective bridge dispatcher instead.",
+            type
+        );
+    }
+
+    private static String stringList(Iterable<String> strings) {
+        StringBuilder sb = new StringBuilder("java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        boolean first = true;
+        for (String s : strings) {
+            if (!first) sb.append(", ");
+            sb.append(javaString(s));
+            first = false;
+        }
+        return sb.append("))").toString();
+    }
+
+    static String javaString(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if ((c < 0x20) || (c > 0x7e)) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static String jsonString(String s) {
+        // Java and JSON string escapes are the same for everything we emit.
+        return javaString(s);
+    }
+
+}
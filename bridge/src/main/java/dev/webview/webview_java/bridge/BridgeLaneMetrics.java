@@ -0,0 +1,140 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Counters describing one of a {@link WebviewBridge}'s priority lanes. Unless
+ * noted otherwise all values are cumulative since the bridge was created.
+ * 
+ * @see WebviewBridge#getLaneMetrics(JavascriptPriority.Level)
+ */
+public class BridgeLaneMetrics {
+    private final @Getter JavascriptPriority.Level level;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final LongAdder callsQueued = new LongAdder();
+    private final LongAdder callsStarted = new LongAdder();
+    private final LongAdder callsRejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    BridgeLaneMetrics(JavascriptPriority.Level level) {
+        this.level = level;
+    }
+
+    void recordQueued() {
+        this.callsQueued.increment();
+        updateMax(this.maxQueueDepth, this.queueDepth.incrementAndGet());
+    }
+
+    void recordStarted(long waitNanos) {
+        this.queueDepth.decrementAndGet();
+        this.callsStarted.increment();
+        this.totalWaitNanos.add(waitNanos);
+        updateMax(this.maxWaitNanos, waitNanos);
+    }
+
+    void recordRejected() {
+        this.queueDepth.decrementAndGet();
+        this.callsRejected.increment();
+    }
+
+    /**
+     * @return the amount of calls currently waiting to start in this lane, either
+     *         for a thread or for a {@link JavascriptConcurrency} mailbox.
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    /**
+     * @return the highest queue depth ever observed.
+     */
+    public long getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    /**
+     * @return the amount of calls that have been put in this lane.
+     */
+    public long getCallsQueued() {
+        return this.callsQueued.sum();
+    }
+
+    /**
+     * @return the amount of calls that have started running.
+     */
+    public long getCallsStarted() {
+        return this.callsStarted.sum();
+    }
+
+    /**
+     * @return the amount of calls that never started, because the lane was full
+     *         or they failed to be scheduled.
+     */
+    public long getCallsRejected() {
+        return this.callsRejected.sum();
+    }
+
+    /**
+     * @return the total time calls spent waiting to start (for a thread and for
+     *         a {@link JavascriptConcurrency} mailbox), in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+        return this.totalWaitNanos.sum();
+    }
+
+    /**
+     * @return the longest time a single call spent waiting to start, in
+     *         nanoseconds.
+     */
+    public long getMaxWaitNanos() {
+        return this.maxWaitNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "BridgeLaneMetrics(level=%s, queueDepth=%d, maxQueueDepth=%d, callsQueued=%d, callsStarted=%d, callsRejected=%d, totalWaitNanos=%d, maxWaitNanos=%d)",
+            this.level, this.getQueueDepth(), this.getMaxQueueDepth(), this.getCallsQueued(), this.getCallsStarted(), this.getCallsRejected(), this.getTotalWaitNanos(), this.getMaxWaitNanos()
+        );
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+}
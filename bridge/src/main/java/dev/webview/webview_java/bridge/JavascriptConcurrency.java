@@ -0,0 +1,73 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how bridge calls to a {@link JavascriptObject} may overlap, which
+ * matters once calls run off the UI thread (async bridges or parallel
+ * batches). Put it on the class to set the policy for all of its members, or
+ * on a single function, getter, setter or value to override it. Objects
+ * without it are {@link Mode#PARALLEL}.
+ */
+@Inherited
+@Retention(RUNTIME)
+@Target({
+        TYPE,
+        METHOD,
+        FIELD
+})
+public @interface JavascriptConcurrency {
+
+    Mode value();
+
+    public enum Mode {
+        /**
+         * Calls are queued in a per-object mailbox and run one at a time, like an
+         * actor. Waiting calls don't hold a thread.
+         */
+        SERIALIZED,
+
+        /**
+         * Calls run as soon as they arrive, the object has to be thread-safe.
+         */
+        PARALLEL,
+
+        /**
+         * Property reads run concurrently with each other, while sets and
+         * functions run one at a time with nothing else in between.
+         */
+        READ_WRITE;
+
+    }
+
+}
@@ -34,6 +34,8 @@ import java.lang.annotation.Target;
  * Example.property and execute a method in Java rather than needing to call
  * Example.getProperty(). Note that the return value will always be a Promise<T>
  * to Javascript and WILL need to be awaited on.
+ * 
+ * @see #cache()
  */
 @Retention(RUNTIME)
 @Target(METHOD)
@@ -41,4 +43,11 @@ public @interface JavascriptGetter {
 
     String value();
 
+    /**
+     * Whether or not Javascript may cache the value, so reads don't need to go
+     * to Java. Call {@link JavascriptObject#invalidate(String)} when the value
+     * changes.
+     */
+    boolean cache() default false;
+
 }
@@ -23,11 +23,8 @@
  */
 package dev.webview.webview_java.bridge;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -35,11 +32,10 @@ import java.util.UUID;
 
 import org.jetbrains.annotations.Nullable;
 
-import co.casterlabs.rakurai.json.Rson;
 import co.casterlabs.rakurai.json.element.JsonArray;
 import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.element.JsonNull;
 import co.casterlabs.rakurai.json.element.JsonString;
-import co.casterlabs.rakurai.json.serialization.JsonParseException;
 import dev.webview.webview_java.bridge.util.ReflectionFieldMutationListener;
 import lombok.Getter;
 import lombok.NonNull;
@@ -54,83 +50,42 @@ import lombok.SneakyThrows;
  * @see JavascriptValue
  */
 public abstract class JavascriptObject {
-    private @Getter String id = UUID.randomUUID().toString();
+    /**
+     * The handle of this object on the wire, assigned by the bridge when the
+     * object is defined. -1 if it hasn't been defined yet.
+     */
+    private @Getter int handle = -1;
 
-    private Map<String, FieldMapping> properties = new HashMap<>();
-    private Map<String, MethodMapping> functions = new HashMap<>();
-    private Map<String, Field> subObjects = new HashMap<>();
+    /**
+     * A random id, unique to this instance and stable for its lifetime. It is no
+     * longer what goes over the wire, see {@link #getHandle()} for that.
+     */
+    private final @Getter String id = UUID.randomUUID().toString();
+
+    private final JavascriptObjectDispatcher dispatcher = _BridgeSchema.of(this.getClass());
+    final _ObjectMailbox mailbox = new _ObjectMailbox();
 
     private WebviewBridge bridge = null;
+    private boolean observing = false;
     @SuppressWarnings("unused")
     private String name;
 
-    @SneakyThrows
+    @SuppressWarnings("deprecation")
     public JavascriptObject() {
-        for (Field field : this.getClass().getDeclaredFields()) {
-            if (Modifier.isStatic(field.getModifiers())) continue;
-
-            if (JavascriptObject.class.isAssignableFrom(field.getType())) {
-                this.subObjects.put(
-                    field.getName(),
-                    field
-                );
-            } else if (field.isAnnotationPresent(JavascriptValue.class)) {
-                JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
-                String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
-
-                FieldMapping mapping = new FieldMapping(this, name);
-
-                mapping.value = field;
-                mapping.valueAnnotation = annotation;
-
-                this.properties.put(name, mapping);
-
-                if (annotation.watchForMutate()) {
-                    new ReflectionFieldMutationListener(field, this)
-                        .onMutate((value) -> {
-                            if (this.bridge == null) return;
-                            this.bridge.emit(
-                                String.format("__internal:mut:%s:%s", this.id, name),
-                                Rson.DEFAULT.toJson(value)
-                            );
-                        });
-                }
-            }
-        }
-
-        for (Method method : this.getClass().getDeclaredMethods()) {
-            if (Modifier.isStatic(method.getModifiers())) continue;
-
-            if (method.isAnnotationPresent(JavascriptFunction.class)) {
-                JavascriptFunction annotation = method.getAnnotation(JavascriptFunction.class);
-                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
-
-                this.functions.put(name, new MethodMapping(this, method));
-            } else if (method.isAnnotationPresent(JavascriptGetter.class)) {
-                JavascriptGetter annotation = method.getAnnotation(JavascriptGetter.class);
-                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
-
-                FieldMapping mapping = this.properties.get(name);
-
-                if (mapping == null) {
-                    mapping = new FieldMapping(this, name);
-                    this.properties.put(name, mapping);
-                }
-
-                mapping.getter = method;
-            } else if (method.isAnnotationPresent(JavascriptSetter.class)) {
-                JavascriptSetter annotation = method.getAnnotation(JavascriptSetter.class);
-                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
-
-                FieldMapping mapping = this.properties.get(name);
-
-                if (mapping == null) {
-                    mapping = new FieldMapping(this, name);
-                    this.properties.put(name, mapping);
-                }
-
-                mapping.setter = method;
-            }
+        // The listeners are polled from a shared thread, so they must only reference
+        // us weakly. Otherwise we'd never be collected (or released from the
+        // bridge), the listener stops itself once we're gone.
+        WeakReference<JavascriptObject> self = new WeakReference<>(this);
+
+        for (Map.Entry<String, Field> watched : this.dispatcher.getWatchedFields().entrySet()) {
+            String name = watched.getKey();
+
+            new ReflectionFieldMutationListener(watched.getValue(), this)
+                .onMutate((value) -> {
+                    JavascriptObject obj = self.get();
+                    if ((obj == null) || (obj.bridge == null)) return;
+                    obj.bridge.queueMutation(obj.handle, name, value);
+                });
         }
     }
 
@@ -140,35 +95,41 @@ public abstract class JavascriptObject {
 
     @SneakyThrows
     private List<String> getInitLines(String name, WebviewBridge bridge, @Nullable JavascriptObject parent) {
+        // Keep our handle for as long as the bridge knows about us, that way
+        // reloads and re-definitions don't leak registry entries.
+        if ((this.bridge != bridge) || (bridge.registry.get(this.handle) != this)) {
+            this.handle = bridge.registry.register(this);
+        }
+
         this.bridge = bridge;
         this.name = name;
 
-        bridge.objects.put(name, this);
+        if (!this.observing) {
+            // The properties are assigned after our constructor runs, so we subscribe
+            // to them here instead.
+            this.observing = true;
+
+            for (Map.Entry<String, JavascriptProperty<?>> entry : this.dispatcher.getObservableProperties(this).entrySet()) {
+                String property = entry.getKey();
+
+                entry.getValue().onChange((value) -> {
+                    this.bridge.queueMutation(this.handle, property, value);
+                });
+            }
+        }
 
         List<String> linesToExecute = new LinkedList<>();
 
         linesToExecute.add(
-            String.format("window.Bridge.__internal.defineObject(%s,%s);", new JsonString(name), new JsonString(this.id))
+            String.format("window.Bridge.__internal.defineObject(%s,%d);", new JsonString(name), this.handle)
         );
 
-        for (String functionName : this.functions.keySet()) {
-            linesToExecute.add(
-                // We directly access the property without `[]` for subobject support.
-                String.format("window.%s.__internal.defineFunction(%s,%s);", name, new JsonString(functionName), new JsonString(this.id))
-            );
-        }
-
-        for (String propertyName : this.properties.keySet()) {
-            linesToExecute.add(
-                // We directly access the property without `[]` for subobject support.
-                String.format("window.%s.__internal.defineProperty(%s);", name, new JsonString(propertyName))
-            );
-        }
+        linesToExecute.addAll(this.dispatcher.getDefineLines(name, this.handle));
 
-        for (Map.Entry<String, Field> entry : this.subObjects.entrySet()) {
-            JavascriptObject value = (JavascriptObject) entry.getValue().get(this);
+        for (Map.Entry<String, JavascriptObject> entry : this.dispatcher.getSubObjects(this).entrySet()) {
+            JavascriptObject value = entry.getValue();
 
-            if ((value != null) && (value != parent)) {
+            if (value != parent) {
                 linesToExecute.addAll(
                     value.getInitLines(name + "." + entry.getKey(), bridge, this)
                 );
@@ -178,129 +139,71 @@ public abstract class JavascriptObject {
         return linesToExecute;
     }
 
-    @Nullable
-    JsonElement get(@NonNull String property, @NonNull WebviewBridge bridge) throws Throwable {
-        try {
-            FieldMapping mapping = this.properties.get(property);
-            assert mapping != null : "Could not find property: " + property;
-
-            return mapping.get();
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
-        }
-    }
-
-    void set(@NonNull String property, JsonElement value, @NonNull WebviewBridge bridge) throws Throwable {
-        try {
-            FieldMapping mapping = this.properties.get(property);
-            assert mapping != null : "Could not find property: " + property;
-
-            mapping.set(value, bridge);
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
-        }
-    }
-
-    @Nullable
-    JsonElement invoke(@NonNull String function, @NonNull JsonArray arguments, @NonNull WebviewBridge bridge) throws Throwable {
-        try {
-            MethodMapping mapping = this.functions.get(function);
-            assert mapping != null : "Could not find function: " + function;
-
-            return mapping.invoke(arguments, bridge);
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
-        }
+    /**
+     * Tells Javascript to drop its cached value of a property, the next read will
+     * go to Java again. Only needed for properties with {@code cache} enabled
+     * that don't push their own changes (e.g getters).
+     * 
+     * @see JavascriptGetter#cache()
+     * @see JavascriptValue#cache()
+     */
+    public void invalidate(@NonNull String property) {
+        if (this.bridge == null) return;
+        this.bridge.emit(
+            String.format("__internal:inv:%d:%s", this.handle, property),
+            JsonNull.INSTANCE
+        );
     }
 
-    private static class MethodMapping {
-        private Object $i;
-
-        private Method method;
+    /**
+     * A sync bridge can't honour priority lanes, so rather than silently running
+     * everything as NORMAL it refuses objects that use them.
+     */
+    @SneakyThrows
+    void checkSyncPriorities(String name, @Nullable JavascriptObject parent) {
+        for (String function : this.dispatcher.getFunctionNames()) {
+            JavascriptPriority.Level priority = this.dispatcher.getFunctionPriority(function);
 
-        public MethodMapping(Object i, Method method) {
-            this.$i = i;
-            this.method = method;
+            if (priority != JavascriptPriority.Level.NORMAL) {
+                throw new IllegalArgumentException(
+                    String.format("%s.%s() is %s, priority lanes need an async bridge.", name, function, priority)
+                );
+            }
         }
 
-        public @Nullable JsonElement invoke(@NonNull JsonArray arguments, @NonNull WebviewBridge bridge) throws Exception {
-            Class<?>[] argTypes = method.getParameterTypes();
-            assert argTypes.length == arguments.size() : "The invoking arguments do not match the expected length: " + argTypes.length;
-
-            Object[] args = new Object[argTypes.length];
+        for (Map.Entry<String, JavascriptObject> entry : this.dispatcher.getSubObjects(this).entrySet()) {
+            JavascriptObject value = entry.getValue();
 
-            for (int i = 0; i < args.length; i++) {
-                try {
-                    args[i] = Rson.DEFAULT.fromJson(arguments.get(i), argTypes[i]);
-                } catch (JsonParseException e) {
-                    throw new IllegalArgumentException("The provided argument " + arguments.get(i) + " could not be converted to " + argTypes[i].getCanonicalName());
-                }
+            if (value != parent) {
+                value.checkSyncPriorities(name + "." + entry.getKey(), this);
             }
-
-            Object result = this.method.invoke($i, args);
-
-            return Rson.DEFAULT.toJson(result);
         }
-
     }
 
-    private static class FieldMapping {
-        private @NonNull Object $i;
-        private @NonNull String $name;
-
-        private Method getter;
-        private Method setter;
-        private Field value;
-        private JavascriptValue valueAnnotation;
-
-        public FieldMapping(Object i, String name) {
-            this.$i = i;
-            this.$name = name;
-        }
-
-        public void set(@NonNull JsonElement v, @NonNull WebviewBridge bridge) throws Exception {
-            if (this.setter != null) {
-                Object o = null;
-
-                if (!v.isJsonNull()) {
-                    Class<?> type = this.setter.getParameterTypes()[0];
-                    o = Rson.DEFAULT.fromJson(v, type);
-                }
-
-                this.setter.invoke($i, o);
-            } else {
-                if (this.valueAnnotation.allowSet()) {
-                    Object o = null;
-
-                    if (!v.isJsonNull()) {
-                        Class<?> type = this.value.getType();
-                        o = Rson.DEFAULT.fromJson(v, type);
-                    }
-
-                    this.value.set($i, o);
-                } else {
-                    throw new UnsupportedOperationException("SET is not allowed for the field: " + $name);
-                }
-            }
-        }
+    JavascriptConcurrency.Mode getFunctionConcurrency(@NonNull String function) {
+        return this.dispatcher.getFunctionConcurrency(function);
+    }
 
-        public @Nullable JsonElement get() throws Exception {
-            Object result;
+    JavascriptPriority.Level getFunctionPriority(@NonNull String function) {
+        return this.dispatcher.getFunctionPriority(function);
+    }
 
-            if (this.getter != null) {
-                result = this.getter.invoke($i);
-            } else {
-                if (this.valueAnnotation.allowGet()) {
+    JavascriptConcurrency.Mode getPropertyConcurrency(@NonNull String property, boolean write) {
+        return this.dispatcher.getPropertyConcurrency(property, write);
+    }
 
-                    result = this.value.get($i);
-                } else {
-                    throw new UnsupportedOperationException("GET is not allowed for the field: " + $name);
-                }
-            }
+    @Nullable
+    JsonElement get(@NonNull String property, @NonNull WebviewBridge bridge) throws Throwable {
+        return this.dispatcher.get(this, property);
+    }
 
-            return Rson.DEFAULT.toJson(result);
-        }
+    void set(@NonNull String property, JsonElement value, @NonNull WebviewBridge bridge) throws Throwable {
+        this.dispatcher.set(this, property, value);
+    }
 
+    @Nullable
+    Object invoke(@NonNull String function, @NonNull JsonArray arguments, @NonNull WebviewBridge bridge) throws Throwable {
+        return this.dispatcher.invoke(this, function, arguments);
     }
 
 }
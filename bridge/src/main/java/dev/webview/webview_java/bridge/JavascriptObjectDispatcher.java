@@ -0,0 +1,125 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.rakurai.json.Rson;
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.serialization.JsonParseException;
+import lombok.NonNull;
+
+/**
+ * Routes bridge calls to the members of a {@link JavascriptObject} class.
+ * 
+ * If the {@code bridge-processor} annotation processor is on your compile
+ * path, it generates a {@code <YourClass>$BridgeDispatcher} for every
+ * {@link JavascriptObject} subclass, which calls your members directly without
+ * any reflection. Classes without a generated dispatcher (or with private
+ * members) fall back to a reflective one.
+ */
+public interface JavascriptObjectDispatcher {
+
+    /**
+     * @return the names of the functions, in the order they were declared.
+     */
+    Collection<String> getFunctionNames();
+
+    /**
+     * @return the names of the properties, in the order they were declared.
+     */
+    Collection<String> getPropertyNames();
+
+    /**
+     * @return the fields marked with {@link JavascriptValue#watchForMutate()},
+     *         by property name.
+     */
+    Map<String, Field> getWatchedFields();
+
+    /**
+     * @return the non-null {@link JavascriptProperty} fields of the instance, by
+     *         property name.
+     */
+    Map<String, JavascriptProperty<?>> getObservableProperties(@NonNull JavascriptObject instance) throws Throwable;
+
+    /**
+     * @return the non-null {@link JavascriptObject} fields of the instance, by
+     *         field name.
+     */
+    Map<String, JavascriptObject> getSubObjects(@NonNull JavascriptObject instance) throws Throwable;
+
+    /**
+     * @return the lines that define the functions and properties on
+     *         {@code window.<path>}.
+     */
+    List<String> getDefineLines(@NonNull String path, int handle);
+
+    /**
+     * @return how calls to the function may overlap, see
+     *         {@link JavascriptConcurrency}.
+     */
+    JavascriptConcurrency.Mode getFunctionConcurrency(@NonNull String function);
+
+    /**
+     * @return the lane the function's calls run in, see
+     *         {@link JavascriptPriority}.
+     */
+    JavascriptPriority.Level getFunctionPriority(@NonNull String function);
+
+    /**
+     * @return how reads (or writes) of the property may overlap, see
+     *         {@link JavascriptConcurrency}.
+     */
+    JavascriptConcurrency.Mode getPropertyConcurrency(@NonNull String property, boolean write);
+
+    @Nullable
+    JsonElement get(@NonNull JavascriptObject instance, @NonNull String property) throws Throwable;
+
+    void set(@NonNull JavascriptObject instance, @NonNull String property, @NonNull JsonElement value) throws Throwable;
+
+    /**
+     * @return the function's result as-is (null for void functions), the bridge
+     *         converts it for Javascript.
+     */
+    @Nullable
+    Object invoke(@NonNull JavascriptObject instance, @NonNull String function, @NonNull JsonArray arguments) throws Throwable;
+
+    /**
+     * Converts a value from Javascript, used by the generated dispatchers.
+     */
+    public static <T> T decode(@NonNull JsonElement element, @NonNull Class<T> type) {
+        try {
+            return Rson.DEFAULT.fromJson(element, type);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("The provided argument " + element + " could not be converted to " + type.getCanonicalName());
+        }
+    }
+
+}
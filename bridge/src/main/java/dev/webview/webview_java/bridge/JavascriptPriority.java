@@ -0,0 +1,81 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a function's calls in a priority lane, so calls that gate user input
+ * (e.g autocomplete) never wait behind bulk work (e.g exports or prefetches).
+ * Put it on the class to set the lane for all of its functions, or on a single
+ * {@link JavascriptFunction} to override it. Functions without it are
+ * {@link Level#NORMAL}.
+ * 
+ * Lanes need an async bridge. A sync bridge runs everything on the UI thread,
+ * so it refuses to define objects with INTERACTIVE or BULK functions rather
+ * than silently running them as NORMAL.
+ * 
+ * @see WebviewBridge#getLaneMetrics(Level)
+ */
+@Inherited
+@Retention(RUNTIME)
+@Target({
+        TYPE,
+        METHOD
+})
+public @interface JavascriptPriority {
+
+    Level value();
+
+    public enum Level {
+        /**
+         * Calls run on their own small pool of high priority threads, and are
+         * picked first when waiting on a {@link JavascriptConcurrency} mailbox.
+         * Once that pool's queue is full further calls fail with a
+         * {@link java.util.concurrent.RejectedExecutionException}.
+         */
+        INTERACTIVE,
+
+        /**
+         * Calls run on the webview's bind executor, same as before lanes existed.
+         */
+        NORMAL,
+
+        /**
+         * Calls run on a small pool of low priority threads (half of the CPUs),
+         * queueing up once it's busy, and are picked last when waiting on a
+         * {@link JavascriptConcurrency} mailbox. Once that queue is full further
+         * calls fail with a {@link java.util.concurrent.RejectedExecutionException}.
+         */
+        BULK;
+
+    }
+
+}
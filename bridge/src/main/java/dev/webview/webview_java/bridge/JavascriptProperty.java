@@ -0,0 +1,96 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.NonNull;
+
+/**
+ * An observable value, expose it with {@link JavascriptValue} and Javascript
+ * will be told about every {@link #set(Object)} without any polling. Updates
+ * are coalesced by the bridge, so setting a value many times within a single
+ * UI tick only sends the latest one.
+ * 
+ * <pre>
+ * &#64;JavascriptValue
+ * public final JavascriptProperty&lt;String&gt; title = new JavascriptProperty&lt;&gt;("Untitled");
+ * </pre>
+ * 
+ * The field should be final, the bridge subscribes to the instance it finds
+ * when the object is defined.
+ */
+public class JavascriptProperty<T> {
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private volatile T value;
+
+    public JavascriptProperty() {
+        this(null);
+    }
+
+    public JavascriptProperty(@Nullable T initialValue) {
+        this.value = initialValue;
+    }
+
+    public @Nullable T get() {
+        return this.value;
+    }
+
+    /**
+     * Sets the value and notifies the listeners on the calling thread.
+     */
+    public void set(@Nullable T value) {
+        this.value = value;
+        this.changed();
+    }
+
+    /**
+     * Notifies the listeners again, call this after changing the value in place
+     * (e.g adding to a list).
+     */
+    public void changed() {
+        T value = this.value;
+        for (Consumer<T> listener : this.listeners) {
+            listener.accept(value);
+        }
+    }
+
+    /**
+     * @return a Runnable that removes the listener.
+     */
+    public Runnable onChange(@NonNull Consumer<T> listener) {
+        this.listeners.add(listener);
+        return () -> this.listeners.remove(listener);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.value);
+    }
+
+}
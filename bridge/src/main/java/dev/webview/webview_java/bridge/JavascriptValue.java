@@ -31,9 +31,10 @@ import java.lang.annotation.Target;
 
 /**
  * Lets you expose a property/field to Javascript. You can optionally disable
- * get or sets, as well as register a watcher (via watchForMutate) which can be
- * used with the `__stores` feature. Note that the return value will always be a
- * Promise<T> to Javascript and WILL need to be awaited on.
+ * get or sets. Fields of type {@link JavascriptProperty} push their changes to
+ * Javascript, which can be used with the `__stores` feature. Note that the
+ * return value will always be a Promise<T> to Javascript and WILL need to be
+ * awaited on.
  */
 @Retention(RUNTIME)
 @Target(FIELD)
@@ -45,6 +46,19 @@ public @interface JavascriptValue {
 
     boolean allowSet() default true;
 
+    /**
+     * Whether or not Javascript may cache the value, so reads don't need to go
+     * to Java. The cache is updated whenever a {@link JavascriptProperty} (or
+     * watched field) changes, otherwise call
+     * {@link JavascriptObject#invalidate(String)}.
+     */
+    boolean cache() default false;
+
+    /**
+     * @deprecated This polls the field for changes, use a
+     *             {@link JavascriptProperty} field instead.
+     */
+    @Deprecated
     boolean watchForMutate() default false;
 
 }
@@ -24,12 +24,22 @@
 package dev.webview.webview_java.bridge;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -41,7 +51,9 @@ import co.casterlabs.rakurai.json.element.JsonNull;
 import co.casterlabs.rakurai.json.element.JsonObject;
 import co.casterlabs.rakurai.json.element.JsonString;
 import dev.webview.webview_java.Webview;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
 public class WebviewBridge {
     private static String bridgeScript = "";
@@ -53,52 +65,244 @@ public class WebviewBridge {
         }
     }
 
-    Map<String, JavascriptObject> objects = new HashMap<>();
+    /**
+     * The named (top-level) objects, these are what keep everything alive.
+     * Sub-objects are reachable through their parents.
+     */
+    Map<String, JavascriptObject> objects = new ConcurrentHashMap<>();
+    _ObjectRegistry registry = new _ObjectRegistry(this::releaseHandles);
     Webview webview;
+    private final boolean async;
+
+    /**
+     * Whether or not to process the calls in a batch concurrently, using the
+     * webview's bind executor. Only has an effect if the bridge is async. The
+     * calls in a batch will no longer run in order and your
+     * {@link JavascriptObject}s must be thread safe if this is enabled.
+     */
+    private @Getter @Setter boolean parallelBatches = false;
+
+    /**
+     * How long a streamed result (a function returning a Stream, Iterator or
+     * Flow.Publisher) may go without being pulled before it's closed, which is
+     * checked whenever a new one is opened. Streams are also closed when the page
+     * is reloaded.
+     */
+    private @Getter @Setter @NonNull Duration streamIdleTimeout = Duration.ofMinutes(5);
+
+    private final _PriorityLanes lanes;
+
+    private final Map<Integer, _ResultStream> streams = new ConcurrentHashMap<>();
+    private final _InFlightCalls inFlightCalls = new _InFlightCalls();
+    private final AtomicInteger streamCounter = new AtomicInteger();
+
+    private final Map<String, PendingMutation> pendingMutations = new LinkedHashMap<>();
+    private boolean mutationFlushScheduled = false;
+
+    /**
+     * The last value sent for each mutation type, mutations are sent as patches
+     * against these.
+     */
+    private final Map<String, MutationSnapshot> mutationSnapshots = new HashMap<>();
 
     public WebviewBridge(@NonNull Webview webview) {
+        this(webview, false);
+    }
+
+    /**
+     * @param webview The webview to bridge.
+     * @param async   Whether or not to process GET/SET/INVOKE calls off of the UI
+     *                thread, using the webview's bind executor. Your
+     *                {@link JavascriptObject}s must be thread safe if this is
+     *                enabled. {@link JavascriptPriority} lanes need this, a
+     *                sync bridge refuses objects that use them.
+     * 
+     * @see           Webview#bind(String, dev.webview.webview_java.WebviewBindCallback,
+     *                boolean)
+     */
+    public WebviewBridge(@NonNull Webview webview, boolean async) {
         this.webview = webview;
+        this.async = async;
+        this.lanes = new _PriorityLanes(webview::getBindExecutor);
 
-        this.webview.bind("__bridgeInternal", (rawArgs) -> {
+        this.webview.bindFuture("__bridgeInternal", (rawArgs) -> {
             JsonArray args = Rson.DEFAULT.fromJson(rawArgs, JsonArray.class);
 
             String type = args.getString(0);
-            JsonObject data = args.getObject(1);
 
-            switch (type) {
-                case "INIT": {
-                    this.emit("init", JsonNull.INSTANCE);
-                    this.webview.eval("console.log('[Webview-Bridge]', 'Bridge init completed.');");
-                    return null;
-                }
+            if (type.equals("BATCH")) {
+                return this.processBatch(args.getArray(1), args.getString(2));
+            } else {
+                return this.processMessage(type, args.getObject(1));
+            }
+        }, async);
 
-                case "GET": {
-                    String id = data.getString("id");
-                    String property = data.getString("property");
-                    return this.processGet(id, property).toString();
-                }
+        this.rebuildInitScript();
+    }
+
+    /**
+     * @return the JSON result, which completes later for functions that return a
+     *         {@link CompletionStage}.
+     */
+    private CompletionStage<String> processMessage(String type, JsonObject data) throws Throwable {
+        switch (type) {
+            case "INIT": {
+                // Anything from the previous page has been abandoned.
+                this.closeStreams();
+                this.inFlightCalls.cancelAll();
+                this.emit("init", JsonNull.INSTANCE);
+                this.webview.eval("console.log('[Webview-Bridge]', 'Bridge init completed.');");
+                return CompletableFuture.completedFuture(null);
+            }
+
+            case "GET": {
+                JavascriptObject object = this.lookup(data.getNumber("id").intValue());
+                String property = data.getString("property");
+                return this.schedule(
+                    object, object.getPropertyConcurrency(property, false), false, JavascriptPriority.Level.NORMAL,
+                    () -> CompletableFuture.completedFuture(object.get(property, this).toString())
+                );
+            }
+
+            case "SET": {
+                JavascriptObject object = this.lookup(data.getNumber("id").intValue());
+                String property = data.getString("property");
+                JsonElement newValue = data.get("newValue");
+                return this.schedule(
+                    object, object.getPropertyConcurrency(property, true), true, JavascriptPriority.Level.NORMAL,
+                    () -> {
+                        object.set(property, newValue, this);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                );
+            }
 
-                case "SET": {
-                    String id = data.getString("id");
-                    String property = data.getString("property");
-                    JsonElement newValue = data.get("newValue");
-                    this.processSet(id, property, newValue);
-                    return null;
+            case "RESYNC": {
+                int handle = data.getNumber("id").intValue();
+                JavascriptObject object = this.lookup(handle);
+                String property = data.getString("property");
+                return this.schedule(
+                    object, object.getPropertyConcurrency(property, false), false, JavascriptPriority.Level.NORMAL,
+                    () -> CompletableFuture.completedFuture(this.processResync(handle, property))
+                );
+            }
+
+            case "INVOKE": {
+                JavascriptObject object = this.lookup(data.getNumber("id").intValue());
+                String function = data.getString("function");
+                JsonArray arguments = data.getArray("arguments");
+                JavascriptConcurrency.Mode mode = object.getFunctionConcurrency(function);
+                JavascriptPriority.Level priority = object.getFunctionPriority(function);
+
+                if (!data.containsKey("call")) {
+                    return this.scheduleInvoke(object, mode, priority, () -> this.processInvoke(object, function, arguments));
                 }
 
-                case "INVOKE": {
-                    String id = data.getString("id");
-                    String function = data.getString("function");
-                    JsonArray arguments = data.getArray("arguments");
-                    return this.processInvoke(id, function, arguments).toString();
+                int callId = data.getNumber("call").intValue();
+                _InFlightCall call = this.inFlightCalls.arrive(callId);
+
+                return this
+                    .scheduleInvoke(object, mode, priority, () -> this.processCancellableInvoke(call, object, function, arguments))
+                    .whenComplete((unused, t) -> this.inFlightCalls.finish(callId, call));
+            }
+
+            case "CANCEL": {
+                int callId = data.getNumber("call").intValue();
+                this.inFlightCalls.cancel(callId);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            case "STREAM_PULL": {
+                int streamId = data.getNumber("stream").intValue();
+                return this.processStreamPull(streamId);
+            }
+
+            case "STREAM_CLOSE": {
+                int streamId = data.getNumber("stream").intValue();
+                _ResultStream stream = this.streams.remove(streamId);
+                if (stream != null) {
+                    stream.close();
                 }
+                return CompletableFuture.completedFuture(null);
+            }
+
+            default:
+                throw new IllegalArgumentException("Unknown IPC message: " + type);
+        }
+    }
 
-                default:
-                    throw new IllegalArgumentException("Unknown IPC message: " + rawArgs);
+    /**
+     * Processes the calls that BridgeScript.js coalesced during a single
+     * microtask. The reply is an array of {@code {result}} or {@code {error}} in
+     * the same order, with {@code null} for the calls that are still running.
+     * Those are answered individually via
+     * {@code Bridge.__internal.batchResult()} as they complete, so a slow call
+     * never holds up the rest of its batch.
+     */
+    private CompletionStage<String> processBatch(JsonArray calls, String batchId) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<String>[] results = new CompletableFuture[calls.size()];
+
+        for (int i = 0; i < results.length; i++) {
+            JsonArray call = calls.getArray(i);
+
+            if (this.async && this.parallelBatches && (results.length > 1)) {
+                results[i] = CompletableFuture
+                    .supplyAsync(() -> this.processBatchedCall(call), this.webview.getBindExecutor())
+                    .thenCompose((result) -> result);
+            } else {
+                results[i] = this.processBatchedCall(call).toCompletableFuture();
             }
-        });
+        }
 
-        this.rebuildInitScript();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) json.append(',');
+
+            CompletableFuture<String> result = results[i];
+            if (result.isDone()) {
+                json.append(result.join());
+                continue;
+            }
+
+            int index = i;
+            json.append("null");
+            result.thenAccept((value) -> {
+                this.webview.eval(
+                    String.format(
+                        "window.Bridge.__internal.batchResult(%s,%d,%s);",
+                        new JsonString(batchId), index, value
+                    )
+                );
+            });
+        }
+
+        return CompletableFuture.completedFuture(json.append(']').toString());
+    }
+
+    private CompletionStage<String> processBatchedCall(JsonArray call) {
+        CompletionStage<String> result;
+        try {
+            result = this.processMessage(call.getString(0), call.getObject(1));
+        } catch (Throwable t) {
+            result = CompletableFuture.failedFuture(t);
+        }
+
+        return result.handle((value, t) -> {
+            if (t == null) {
+                return "{\"result\":" + (value == null ? "null" : value) + '}';
+            }
+
+            if ((t instanceof CompletionException) && (t.getCause() != null)) {
+                t = t.getCause();
+            }
+
+            // The same stack trace a failed bind call rejects with, it's up to
+            // Javascript to report it.
+            StringWriter stack = new StringWriter();
+            t.printStackTrace(new PrintWriter(stack));
+            return "{\"error\":" + new JsonString(stack.toString().trim().replace("\r", "")) + '}';
+        });
     }
 
     private void rebuildInitScript() {
@@ -120,11 +324,71 @@ public class WebviewBridge {
         this.webview.setInitScript(String.join("\n\n", init), false);
     }
 
+    /**
+     * Defines an object under {@code window.<name>}. If another object was
+     * already defined under that name it is replaced and released.
+     * 
+     * @throws IllegalArgumentException if this is a sync bridge and the object
+     *                                  (or one of its sub-objects) has a function
+     *                                  in a {@link JavascriptPriority} lane other
+     *                                  than NORMAL.
+     */
     public void defineObject(@NonNull String name, @NonNull JavascriptObject obj) {
+        if (!this.async) {
+            obj.checkSyncPriorities(name, null);
+        }
+
+        JavascriptObject previous = this.objects.put(name, obj);
+        if (previous != obj) {
+            this.releaseIfUnused(previous);
+        }
+
         this.webview.eval(String.join("\n", obj.getInitLines(name, this)));
         this.rebuildInitScript();
     }
 
+    /**
+     * Removes the object under {@code window.<name>} from both Java and
+     * Javascript. Does nothing if there is no such object.
+     */
+    public void removeObject(@NonNull String name) {
+        JavascriptObject removed = this.objects.remove(name);
+        if (removed == null) return;
+
+        this.webview.eval(String.format("window.Bridge.__internal.removeObject(%s);", new JsonString(name)));
+        this.releaseIfUnused(removed);
+        this.rebuildInitScript();
+    }
+
+    private void releaseIfUnused(@Nullable JavascriptObject obj) {
+        // The same object may be defined under multiple names.
+        if ((obj != null) && !this.objects.containsValue(obj)) {
+            this.registry.release(obj.getHandle());
+        }
+        // Any sub-objects get released once they're collected.
+    }
+
+    private void releaseHandles(int[] handles) {
+        synchronized (this.mutationSnapshots) {
+            for (int handle : handles) {
+                String prefix = mutationType(handle, "");
+                this.mutationSnapshots.keySet().removeIf((type) -> type.startsWith(prefix));
+            }
+        }
+
+        this.webview.eval(String.format("window.Bridge.__internal.release(%s);", Arrays.toString(handles)));
+    }
+
+    /**
+     * @return the queue depth and wait time counters of a priority lane. On a
+     *         sync bridge every call is counted as NORMAL.
+     * 
+     * @see JavascriptPriority
+     */
+    public BridgeLaneMetrics getLaneMetrics(@NonNull JavascriptPriority.Level level) {
+        return this.lanes.getMetrics(level);
+    }
+
     public void emit(@NonNull String type, @NonNull JsonElement data) {
         this.webview.eval(
             String.format(
@@ -134,31 +398,260 @@ public class WebviewBridge {
         );
     }
 
-    private @Nullable JsonElement processGet(String id, String property) throws Throwable {
-        for (JavascriptObject obj : this.objects.values()) {
-            if (obj.getId().equals(id)) {
-                return obj.get(property, this);
+    private JavascriptObject lookup(int handle) {
+        JavascriptObject obj = this.registry.get(handle);
+        if (obj == null) {
+            throw new IllegalArgumentException("No object with handle " + handle + ", it may have been removed.");
+        }
+        return obj;
+    }
+
+    /**
+     * Queues a mutation event for a property. Mutations are sent in batches, only
+     * the latest value of each property is sent. Serializing and diffing happen
+     * on the bind executor, the UI thread only evaluates the resulting script.
+     */
+    void queueMutation(int handle, String property, @Nullable Object value) {
+        if (this.registry.get(handle) == null) return; // Released, no one is listening.
+
+        String type = mutationType(handle, property);
+
+        synchronized (this.pendingMutations) {
+            this.pendingMutations.put(type, new PendingMutation(handle, value));
+
+            if (this.mutationFlushScheduled) return;
+            this.mutationFlushScheduled = true;
+        }
+
+        this.webview.getBindExecutor().execute(this::flushMutations);
+    }
+
+    /**
+     * Only ever runs once at a time, so snapshots are updated (and scripts
+     * evaluated) in order.
+     */
+    private void flushMutations() {
+        while (true) {
+            List<Map.Entry<String, PendingMutation>> mutations;
+            synchronized (this.pendingMutations) {
+                if (this.pendingMutations.isEmpty()) {
+                    this.mutationFlushScheduled = false;
+                    return;
+                }
+
+                mutations = new ArrayList<>(this.pendingMutations.entrySet());
+                this.pendingMutations.clear();
+            }
+
+            StringBuilder script = new StringBuilder();
+            for (Map.Entry<String, PendingMutation> mutation : mutations) {
+                PendingMutation pending = mutation.getValue();
+                if (this.registry.get(pending.handle) == null) continue; // Released whilst queued.
+
+                JsonElement value = Rson.DEFAULT.toJson(pending.value);
+                String message;
+
+                synchronized (this.mutationSnapshots) {
+                    // Checked again under the lock, a release that got here first has already
+                    // dropped the handle's snapshots and we mustn't add one back.
+                    if (this.registry.get(pending.handle) == null) continue;
+
+                    MutationSnapshot previous = this.mutationSnapshots.get(mutation.getKey());
+
+                    if (previous == null) {
+                        // Javascript hasn't asked for this value yet, so there's no one to patch.
+                        message = String.format("{\"v\":1,\"value\":%s}", value);
+                        this.mutationSnapshots.put(mutation.getKey(), new MutationSnapshot(1, value));
+                    } else {
+                        String patch = _JsonPatch.diff(previous.value, value);
+                        if (patch == null) continue; // Nothing changed.
+
+                        int version = previous.version + 1;
+                        String full = value.toString();
+
+                        if (patch.length() < full.length()) {
+                            message = String.format("{\"v\":%d,\"patch\":%s}", version, patch);
+                        } else {
+                            message = String.format("{\"v\":%d,\"value\":%s}", version, full);
+                        }
+
+                        this.mutationSnapshots.put(mutation.getKey(), new MutationSnapshot(version, value));
+                    }
+                }
+
+                script.append(
+                    String.format(
+                        "window.Bridge.__internal.broadcast(%s,%s);\n",
+                        new JsonString(mutation.getKey()), message
+                    )
+                );
+            }
+
+            if (script.length() > 0) {
+                this.webview.eval(script.toString());
             }
         }
-        return null;
     }
 
-    private void processSet(String id, String property, JsonElement value) throws Throwable {
-        for (JavascriptObject obj : this.objects.values()) {
-            if (obj.getId().equals(id)) {
-                obj.set(property, value, this);
-                break;
+    /**
+     * Sends the full value of a watched property along with its version, used
+     * by Javascript when it first subscribes or when it misses a patch.
+     */
+    private String processResync(int handle, String property) throws Throwable {
+        String type = mutationType(handle, property);
+
+        MutationSnapshot snapshot;
+        synchronized (this.mutationSnapshots) {
+            snapshot = this.mutationSnapshots.get(type);
+        }
+
+        if (snapshot == null) {
+            // Never sent before, so the current value is version 0.
+            JsonElement current = this.lookup(handle).get(property, this);
+            JsonElement value = current == null ? JsonNull.INSTANCE : current;
+
+            synchronized (this.mutationSnapshots) {
+                snapshot = this.mutationSnapshots.computeIfAbsent(type, (t) -> new MutationSnapshot(0, value));
             }
         }
+
+        return String.format("{\"v\":%d,\"value\":%s}", snapshot.version, snapshot.value);
+    }
+
+    private static String mutationType(int handle, String property) {
+        return String.format("__internal:mut:%d:%s", handle, property);
+    }
+
+    /**
+     * Runs the work according to the member's {@link JavascriptConcurrency}.
+     * 
+     * @param write    whether the work modifies the object (sets and functions).
+     * @param priority the lane to resume in, should the work need to wait.
+     */
+    private <T> CompletionStage<T> schedule(JavascriptObject object, JavascriptConcurrency.Mode mode, boolean write, JavascriptPriority.Level priority, _ObjectMailbox.Work<T> work) throws Throwable {
+        switch (mode) {
+            case SERIALIZED:
+                return object.mailbox.submit(true, priority, work, this.lanes.getExecutor(priority));
+
+            case READ_WRITE:
+                return object.mailbox.submit(write, priority, work, this.lanes.getExecutor(priority));
+
+            case PARALLEL:
+            default:
+                return work.call();
+        }
+    }
+
+    /**
+     * Runs the invoke in its {@link JavascriptPriority} lane, and then according
+     * to the function's {@link JavascriptConcurrency}.
+     */
+    private CompletionStage<String> scheduleInvoke(JavascriptObject object, JavascriptConcurrency.Mode mode, JavascriptPriority.Level priority, _ObjectMailbox.Work<String> work) {
+        return this.lanes.submit(priority, (timed) -> this.schedule(object, mode, true, priority, timed), work);
     }
 
-    private @Nullable JsonElement processInvoke(String id, String function, JsonArray args) throws Throwable {
-        for (JavascriptObject obj : this.objects.values()) {
-            if (obj.getId().equals(id)) {
-                return obj.invoke(function, args, this);
+    private CompletionStage<String> processInvoke(JavascriptObject object, String function, JsonArray args) throws Throwable {
+        Object result = object.invoke(function, args, this);
+
+        if (result instanceof CompletionStage) {
+            // Answered once it completes, without holding up the loop.
+            return ((CompletionStage<?>) result).thenApply(this::encodeResult);
+        } else {
+            return CompletableFuture.completedFuture(this.encodeResult(result));
+        }
+    }
+
+    private CompletionStage<String> processCancellableInvoke(_InFlightCall call, JavascriptObject object, String function, JsonArray args) throws Throwable {
+        Object result;
+        try {
+            call.start();
+            result = object.invoke(function, args, this);
+        } catch (Throwable t) {
+            call.finish(null);
+            throw t;
+        }
+
+        call.finish(result);
+
+        if (result instanceof CompletionStage) {
+            return ((CompletionStage<?>) result).thenApply(this::encodeResult);
+        } else {
+            return CompletableFuture.completedFuture(this.encodeResult(result));
+        }
+    }
+
+    private String encodeResult(@Nullable Object result) {
+        _ResultStream stream = _ResultStream.of(result);
+        if (stream == null) {
+            return Rson.DEFAULT.toJson(result).toString();
+        }
+
+        // Streams are pulled by Javascript in chunks, see BridgeScript.js.
+        this.closeIdleStreams();
+
+        int streamId = this.streamCounter.incrementAndGet();
+        this.streams.put(streamId, stream);
+        return String.format("{\"__bridgeStream\":%d}", streamId);
+    }
+
+    private CompletionStage<String> processStreamPull(int streamId) {
+        _ResultStream stream = this.streams.get(streamId);
+        if (stream == null) {
+            throw new IllegalArgumentException("No stream with id " + streamId + ", it may have been closed.");
+        }
+
+        // Answered once there's something to send, without holding up the loop.
+        return stream.pull().whenComplete((unused, t) -> {
+            if (stream.isClosed()) {
+                this.streams.remove(streamId, stream);
+            }
+        });
+    }
+
+    /**
+     * Closes the streams that Javascript abandoned without closing them (e.g the
+     * result was never iterated).
+     */
+    private void closeIdleStreams() {
+        long timeoutNanos = this.streamIdleTimeout.toNanos();
+
+        for (Map.Entry<Integer, _ResultStream> entry : new ArrayList<>(this.streams.entrySet())) {
+            _ResultStream stream = entry.getValue();
+            if (stream.isIdle(timeoutNanos) && this.streams.remove(entry.getKey(), stream)) {
+                stream.close();
             }
         }
-        return null;
+    }
+
+    private void closeStreams() {
+        for (Integer streamId : new ArrayList<>(this.streams.keySet())) {
+            _ResultStream stream = this.streams.remove(streamId);
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    private static class PendingMutation {
+        private final int handle;
+        private final @Nullable Object value;
+
+        PendingMutation(int handle, @Nullable Object value) {
+            this.handle = handle;
+            this.value = value;
+        }
+
+    }
+
+    private static class MutationSnapshot {
+        private final int version;
+        private final JsonElement value;
+
+        MutationSnapshot(int version, JsonElement value) {
+            this.version = version;
+            this.value = value;
+        }
+
     }
 
 }
@@ -0,0 +1,468 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.rakurai.json.Rson;
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.element.JsonString;
+import lombok.NonNull;
+
+/**
+ * The bridged members of a {@link JavascriptObject} class, including the ones
+ * it inherits, found with reflection. This is computed once per class and
+ * shared between all of its instances, which pass themselves in when calling a
+ * member.
+ */
+class _BridgeSchema implements JavascriptObjectDispatcher {
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final String GENERATED_SUFFIX = "$BridgeDispatcher";
+
+    private static final ClassValue<JavascriptObjectDispatcher> CACHE = new ClassValue<JavascriptObjectDispatcher>() {
+        @Override
+        protected JavascriptObjectDispatcher computeValue(Class<?> type) {
+            try {
+                Class<?> generated = Class.forName(type.getName() + GENERATED_SUFFIX, true, type.getClassLoader());
+                return (JavascriptObjectDispatcher) generated.getConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                return new _BridgeSchema(type);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to instantiate the generated dispatcher for " + type, e);
+            }
+        }
+    };
+
+    private final Map<String, FunctionMapping> functions;
+    private final Map<String, PropertyMapping> properties;
+    private final Map<String, _Invokers.FieldGetter> subObjects;
+    private final Map<String, Field> watchedFields;
+    private final Map<String, _Invokers.FieldGetter> observables;
+    private final JavascriptConcurrency.Mode concurrency;
+    private final JavascriptPriority.Level priority;
+
+    /**
+     * @return the generated dispatcher for the class, or a reflective one if there
+     *         isn't one.
+     */
+    static JavascriptObjectDispatcher of(@NonNull Class<? extends JavascriptObject> type) {
+        return CACHE.get(type);
+    }
+
+    @SuppressWarnings("deprecation") // We still have to honor watchForMutate.
+    _BridgeSchema(Class<?> type) {
+        Map<String, FunctionMapping> functions = new LinkedHashMap<>();
+        Map<String, PropertyMapping> properties = new LinkedHashMap<>();
+        Map<String, _Invokers.FieldGetter> subObjects = new LinkedHashMap<>();
+        Map<String, Field> watchedFields = new LinkedHashMap<>();
+        Map<String, _Invokers.FieldGetter> observables = new LinkedHashMap<>();
+
+        JavascriptConcurrency classConcurrency = type.getAnnotation(JavascriptConcurrency.class);
+        this.concurrency = classConcurrency == null ? JavascriptConcurrency.Mode.PARALLEL : classConcurrency.value();
+
+        JavascriptPriority classPriority = type.getAnnotation(JavascriptPriority.class);
+        this.priority = classPriority == null ? JavascriptPriority.Level.NORMAL : classPriority.value();
+
+        // Walk from the top of the hierarchy down, so that subclasses can redefine
+        // their parent's members.
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = type; (c != null) && (c != JavascriptObject.class); c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+
+                if (JavascriptObject.class.isAssignableFrom(field.getType())) {
+                    subObjects.put(
+                        field.getName(),
+                        _Invokers.forGetter(field)
+                    );
+                } else if (field.isAnnotationPresent(JavascriptValue.class)) {
+                    JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
+                    String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+
+                    PropertyMapping mapping = new PropertyMapping(name);
+                    mapping.setConcurrency(concurrencyOf(field), true, true);
+
+                    if (field.getType() == JavascriptProperty.class) {
+                        mapping.setObservable(field, annotation);
+                        observables.put(name, mapping.valueGetter);
+                    } else {
+                        mapping.setValue(field, annotation);
+                        observables.remove(name);
+
+                        if (annotation.watchForMutate()) {
+                            watchedFields.put(name, field);
+                        }
+                    }
+
+                    properties.put(name, mapping);
+                }
+            }
+
+            for (Method method : c.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) continue;
+
+                if (method.isAnnotationPresent(JavascriptFunction.class)) {
+                    JavascriptFunction annotation = method.getAnnotation(JavascriptFunction.class);
+                    String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+
+                    functions.put(name, new FunctionMapping(method, concurrencyOf(method), priorityOf(method)));
+                } else if (method.isAnnotationPresent(JavascriptGetter.class)) {
+                    JavascriptGetter annotation = method.getAnnotation(JavascriptGetter.class);
+                    String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+
+                    PropertyMapping mapping = properties.computeIfAbsent(name, PropertyMapping::new);
+                    mapping.setGetter(method, annotation.cache());
+                    mapping.setConcurrency(concurrencyOf(method), true, false);
+                } else if (method.isAnnotationPresent(JavascriptSetter.class)) {
+                    JavascriptSetter annotation = method.getAnnotation(JavascriptSetter.class);
+                    String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+
+                    PropertyMapping mapping = properties.computeIfAbsent(name, PropertyMapping::new);
+                    mapping.setSetter(method);
+                    mapping.setConcurrency(concurrencyOf(method), false, true);
+                }
+            }
+        }
+
+        this.functions = Collections.unmodifiableMap(functions);
+        this.properties = Collections.unmodifiableMap(properties);
+        this.subObjects = Collections.unmodifiableMap(subObjects);
+        this.watchedFields = Collections.unmodifiableMap(watchedFields);
+        this.observables = Collections.unmodifiableMap(observables);
+    }
+
+    @Override
+    public Collection<String> getFunctionNames() {
+        return this.functions.keySet();
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        return this.properties.keySet();
+    }
+
+    @Override
+    public Map<String, Field> getWatchedFields() {
+        return this.watchedFields;
+    }
+
+    @Override
+    public Map<String, JavascriptProperty<?>> getObservableProperties(@NonNull JavascriptObject instance) throws Throwable {
+        if (this.observables.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, JavascriptProperty<?>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, _Invokers.FieldGetter> entry : this.observables.entrySet()) {
+            JavascriptProperty<?> value = (JavascriptProperty<?>) entry.getValue().get(instance);
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, JavascriptObject> getSubObjects(@NonNull JavascriptObject instance) throws Throwable {
+        Map<String, JavascriptObject> result = new LinkedHashMap<>();
+        for (Map.Entry<String, _Invokers.FieldGetter> entry : this.subObjects.entrySet()) {
+            JavascriptObject value = (JavascriptObject) entry.getValue().get(instance);
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getDefineLines(@NonNull String path, int handle) {
+        List<String> lines = new ArrayList<>(this.functions.size() + this.properties.size());
+
+        for (String functionName : this.functions.keySet()) {
+            lines.add(
+                // We directly access the property without `[]` for subobject support.
+                String.format("window.%s.__internal.defineFunction(%s,%d);", path, new JsonString(functionName), handle)
+            );
+        }
+
+        for (PropertyMapping property : this.properties.values()) {
+            lines.add(
+                // We directly access the property without `[]` for subobject support.
+                String.format("window.%s.__internal.defineProperty(%s,%b);", path, new JsonString(property.name), property.cached)
+            );
+        }
+
+        return lines;
+    }
+
+    /**
+     * @return the member's own policy, or null to use the class's.
+     */
+    private static @Nullable JavascriptConcurrency.Mode concurrencyOf(AnnotatedElement member) {
+        JavascriptConcurrency annotation = member.getAnnotation(JavascriptConcurrency.class);
+        return annotation == null ? null : annotation.value();
+    }
+
+    @Override
+    public JavascriptConcurrency.Mode getFunctionConcurrency(@NonNull String function) {
+        FunctionMapping mapping = this.functions.get(function);
+        if ((mapping == null) || (mapping.concurrency == null)) {
+            return this.concurrency;
+        }
+        return mapping.concurrency;
+    }
+
+    private static @Nullable JavascriptPriority.Level priorityOf(AnnotatedElement member) {
+        JavascriptPriority annotation = member.getAnnotation(JavascriptPriority.class);
+        return annotation == null ? null : annotation.value();
+    }
+
+    @Override
+    public JavascriptPriority.Level getFunctionPriority(@NonNull String function) {
+        FunctionMapping mapping = this.functions.get(function);
+        if ((mapping == null) || (mapping.priority == null)) {
+            return this.priority;
+        }
+        return mapping.priority;
+    }
+
+    @Override
+    public JavascriptConcurrency.Mode getPropertyConcurrency(@NonNull String property, boolean write) {
+        PropertyMapping mapping = this.properties.get(property);
+        JavascriptConcurrency.Mode mode = null;
+        if (mapping != null) {
+            mode = write ? mapping.setConcurrency : mapping.getConcurrency;
+        }
+        return mode == null ? this.concurrency : mode;
+    }
+
+    @Override
+    public @Nullable JsonElement get(@NonNull JavascriptObject instance, @NonNull String property) throws Throwable {
+        PropertyMapping mapping = this.properties.get(property);
+        if (mapping == null) {
+            throw new IllegalArgumentException("Could not find property: " + property);
+        }
+
+        return mapping.get(instance);
+    }
+
+    @Override
+    public void set(@NonNull JavascriptObject instance, @NonNull String property, @NonNull JsonElement value) throws Throwable {
+        PropertyMapping mapping = this.properties.get(property);
+        if (mapping == null) {
+            throw new IllegalArgumentException("Could not find property: " + property);
+        }
+
+        mapping.set(instance, value);
+    }
+
+    @Override
+    public @Nullable Object invoke(@NonNull JavascriptObject instance, @NonNull String function, @NonNull JsonArray arguments) throws Throwable {
+        FunctionMapping mapping = this.functions.get(function);
+        if (mapping == null) {
+            throw new IllegalArgumentException("Could not find function: " + function);
+        }
+
+        return mapping.invoke(instance, arguments);
+    }
+
+    private static class FunctionMapping {
+        private final Class<?>[] argTypes;
+        private final _Invokers.MethodInvoker invoker;
+        private final @Nullable JavascriptConcurrency.Mode concurrency;
+        private final @Nullable JavascriptPriority.Level priority;
+
+        FunctionMapping(Method method, @Nullable JavascriptConcurrency.Mode concurrency, @Nullable JavascriptPriority.Level priority) {
+            this.argTypes = method.getParameterTypes();
+            this.invoker = _Invokers.forMethod(method);
+            this.concurrency = concurrency;
+            this.priority = priority;
+        }
+
+        @Nullable
+        Object invoke(@NonNull Object $i, @NonNull JsonArray arguments) throws Throwable {
+            if (this.argTypes.length != arguments.size()) {
+                throw new IllegalArgumentException("The invoking arguments do not match the expected length: " + this.argTypes.length);
+            }
+
+            Object[] args = new Object[this.argTypes.length];
+
+            for (int i = 0; i < args.length; i++) {
+                args[i] = JavascriptObjectDispatcher.decode(arguments.get(i), this.argTypes[i]);
+            }
+
+            return this.invoker.invoke($i, args);
+        }
+
+    }
+
+    private static class PropertyMapping {
+        private final String name;
+
+        private _Invokers.MethodInvoker getter;
+
+        private _Invokers.MethodInvoker setter;
+        private Class<?> setterType;
+
+        private _Invokers.FieldGetter valueGetter;
+        private _Invokers.FieldSetter valueSetter;
+        private Class<?> valueType;
+        private JavascriptValue valueAnnotation;
+        private boolean observable;
+        private boolean cached;
+
+        private @Nullable JavascriptConcurrency.Mode getConcurrency;
+        private @Nullable JavascriptConcurrency.Mode setConcurrency;
+
+        PropertyMapping(String name) {
+            this.name = name;
+        }
+
+        private void setConcurrency(@Nullable JavascriptConcurrency.Mode mode, boolean get, boolean set) {
+            if (mode == null) return;
+            if (get) this.getConcurrency = mode;
+            if (set) this.setConcurrency = mode;
+        }
+
+        private void setGetter(Method getter, boolean cached) {
+            this.getter = _Invokers.forMethod(getter);
+            this.cached |= cached;
+        }
+
+        private void setSetter(Method setter) {
+            this.setter = _Invokers.forMethod(setter);
+            this.setterType = setter.getParameterTypes()[0];
+        }
+
+        private void setValue(Field value, JavascriptValue annotation) {
+            this.valueGetter = _Invokers.forGetter(value);
+            this.valueSetter = _Invokers.forSetter(value);
+            this.valueType = value.getType();
+            this.valueAnnotation = annotation;
+            this.cached |= annotation.cache();
+        }
+
+        private void setObservable(Field value, JavascriptValue annotation) {
+            this.valueGetter = _Invokers.forGetter(value);
+            this.valueType = Object.class;
+            this.valueAnnotation = annotation;
+            this.observable = true;
+            this.cached |= annotation.cache();
+
+            // Figure out the T in JavascriptProperty<T>, so we can decode into it.
+            Type generic = value.getGenericType();
+            if (generic instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) generic).getActualTypeArguments()[0];
+
+                if (argument instanceof Class) {
+                    this.valueType = (Class<?>) argument;
+                } else if (argument instanceof ParameterizedType) {
+                    this.valueType = (Class<?>) ((ParameterizedType) argument).getRawType();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void set(@NonNull Object $i, @NonNull JsonElement v) throws Throwable {
+            if (this.setter != null) {
+                Object o = null;
+
+                if (!v.isJsonNull()) {
+                    o = JavascriptObjectDispatcher.decode(v, this.setterType);
+                }
+
+                this.setter.invoke($i, new Object[] {
+                        o
+                });
+            } else if (this.observable) {
+                if (!this.valueAnnotation.allowSet()) {
+                    throw new UnsupportedOperationException("SET is not allowed for the field: " + this.name);
+                }
+
+                Object o = null;
+
+                if (!v.isJsonNull()) {
+                    o = JavascriptObjectDispatcher.decode(v, this.valueType);
+                }
+
+                ((JavascriptProperty<Object>) this.valueGetter.get($i)).set(o);
+            } else {
+                if ((this.valueAnnotation != null) && this.valueAnnotation.allowSet() && (this.valueSetter != null)) {
+                    Object o = null;
+
+                    if (!v.isJsonNull()) {
+                        o = JavascriptObjectDispatcher.decode(v, this.valueType);
+                    }
+
+                    this.valueSetter.set($i, o);
+                } else {
+                    throw new UnsupportedOperationException("SET is not allowed for the field: " + this.name);
+                }
+            }
+        }
+
+        @Nullable
+        JsonElement get(@NonNull Object $i) throws Throwable {
+            Object result;
+
+            if (this.getter != null) {
+                result = this.getter.invoke($i, NO_ARGS);
+            } else {
+                if ((this.valueAnnotation != null) && this.valueAnnotation.allowGet()) {
+                    result = this.valueGetter.get($i);
+
+                    if (this.observable && (result != null)) {
+                        result = ((JavascriptProperty<?>) result).get();
+                    }
+                } else {
+                    throw new UnsupportedOperationException("GET is not allowed for the field: " + this.name);
+                }
+            }
+
+            return Rson.DEFAULT.toJson(result);
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A function call that Javascript may cancel (via an AbortSignal). Cancelling
+ * interrupts the thread running the function, or cancels the future it
+ * returned.
+ */
+class _InFlightCall {
+    private @Nullable Thread thread;
+    private @Nullable CompletableFuture<?> future;
+    private boolean cancelled = false;
+
+    /**
+     * Marks the current thread as running the call.
+     * 
+     * @throws CancellationException if the call was cancelled before it started.
+     */
+    synchronized void start() {
+        if (this.cancelled) {
+            throw new CancellationException("The call was cancelled.");
+        }
+
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * Called by the thread running the call once the function returns.
+     */
+    synchronized void finish(@Nullable Object result) {
+        this.thread = null;
+
+        if (this.cancelled) {
+            // Don't let our interrupt leak into whatever this thread does next.
+            Thread.interrupted();
+        }
+
+        if (result instanceof CompletionStage) {
+            try {
+                this.future = ((CompletionStage<?>) result).toCompletableFuture();
+            } catch (UnsupportedOperationException e) {
+                return; // Can't be cancelled.
+            }
+
+            if (this.cancelled) {
+                this.future.cancel(true);
+            }
+        }
+    }
+
+    synchronized void cancel() {
+        if (this.cancelled) return;
+        this.cancelled = true;
+
+        if (this.thread != null) {
+            this.thread.interrupt();
+        }
+
+        if (this.future != null) {
+            this.future.cancel(true);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.NonNull;
+
+/**
+ * Tracks the cancellable calls of the current page by their call id.
+ * Javascript only sends a CANCEL after its INVOKE, but the two may be processed
+ * in either order (or long after the call finished), so we remember which ids
+ * were cancelled before they arrived and which have already finished. Both are
+ * bounded to the most recent {@value #MAX_REMEMBERED} ids.
+ */
+class _InFlightCalls {
+    static final int MAX_REMEMBERED = 1024;
+
+    private final Map<Integer, _InFlightCall> running = new HashMap<>();
+    private final Map<Integer, _InFlightCall> cancelledEarly = bounded();
+    private final Set<Integer> finished = Collections.newSetFromMap(bounded());
+
+    /**
+     * Registers a call as soon as its INVOKE arrives, so that a CANCEL can find
+     * it while it's still queued.
+     * 
+     * @return the call, which is already cancelled if its CANCEL got here first.
+     */
+    synchronized _InFlightCall arrive(int id) {
+        _InFlightCall call = this.cancelledEarly.remove(id);
+        if (call == null) {
+            call = new _InFlightCall();
+        }
+
+        this.finished.remove(id);
+        this.running.put(id, call);
+        return call;
+    }
+
+    /**
+     * Called however the call ends, including when it never got to start.
+     */
+    synchronized void finish(int id, @NonNull _InFlightCall call) {
+        if (this.running.remove(id, call)) {
+            this.finished.add(id);
+        }
+    }
+
+    void cancel(int id) {
+        _InFlightCall call;
+
+        synchronized (this) {
+            call = this.running.get(id);
+
+            if (call == null) {
+                if (!this.finished.contains(id)) {
+                    // The INVOKE hasn't arrived yet, this leaves a cancelled call for it to find.
+                    _InFlightCall early = new _InFlightCall();
+                    early.cancel();
+                    this.cancelledEarly.put(id, early);
+                }
+                // Otherwise it's a late CANCEL for a call that already finished.
+                return;
+            }
+        }
+
+        call.cancel();
+    }
+
+    /**
+     * Cancels everything and forgets all ids, Javascript restarts its call ids on
+     * every page.
+     */
+    void cancelAll() {
+        List<_InFlightCall> calls;
+
+        synchronized (this) {
+            calls = new ArrayList<>(this.running.values());
+            this.running.clear();
+            this.cancelledEarly.clear();
+            this.finished.clear();
+        }
+
+        for (_InFlightCall call : calls) {
+            call.cancel();
+        }
+    }
+
+    synchronized int running() {
+        return this.running.size();
+    }
+
+    /**
+     * @return the number of early cancellations and finished ids being
+     *         remembered.
+     */
+    synchronized int remembered() {
+        return this.cancelledEarly.size() + this.finished.size();
+    }
+
+    private static <V> Map<Integer, V> bounded() {
+        return new LinkedHashMap<Integer, V>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, V> eldest) {
+                return this.size() > MAX_REMEMBERED;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,312 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Builds invokers for bridged members, once per member. Methods with up to
+ * {@link #MAX_SPUN_ARITY} arguments get a class spun up by
+ * {@link LambdaMetafactory} which calls the method directly (and can be inlined
+ * by the JIT), anything else falls back to a {@link MethodHandle}. Either way
+ * there's no access checking or {@link java.lang.reflect.InvocationTargetException}
+ * wrapping at call time.
+ * 
+ * All invokers take the target instance as a parameter so that they can be
+ * shared between instances, and are cached per member so that each one is only
+ * ever built once.
+ */
+class _Invokers {
+    static final int MAX_SPUN_ARITY = 4;
+
+    private static final ClassValue<MemberCache> CACHE = new ClassValue<MemberCache>() {
+        @Override
+        protected MemberCache computeValue(Class<?> type) {
+            return new MemberCache();
+        }
+    };
+
+    /**
+     * The invokers of the members declared by a single class.
+     */
+    private static class MemberCache {
+        final Map<Method, MethodInvoker> methods = new ConcurrentHashMap<>();
+        final Map<Field, FieldGetter> getters = new ConcurrentHashMap<>();
+        final Map<Field, Optional<FieldSetter>> setters = new ConcurrentHashMap<>();
+    }
+
+    @FunctionalInterface
+    static interface MethodInvoker {
+        @Nullable
+        Object invoke(Object instance, Object[] args) throws Throwable;
+    }
+
+    @FunctionalInterface
+    static interface FieldGetter {
+        @Nullable
+        Object get(Object instance) throws Throwable;
+    }
+
+    @FunctionalInterface
+    static interface FieldSetter {
+        void set(Object instance, @Nullable Object value) throws Throwable;
+    }
+
+    /* ---------------- */
+    /* Spun invokers    */
+    /* ---------------- */
+
+    // These need to be public, the spun classes live in the target's package.
+
+    public static interface Invoker0 {
+        Object invoke(Object $i);
+    }
+
+    public static interface Invoker1 {
+        Object invoke(Object $i, Object a0);
+    }
+
+    public static interface Invoker2 {
+        Object invoke(Object $i, Object a0, Object a1);
+    }
+
+    public static interface Invoker3 {
+        Object invoke(Object $i, Object a0, Object a1, Object a2);
+    }
+
+    public static interface Invoker4 {
+        Object invoke(Object $i, Object a0, Object a1, Object a2, Object a3);
+    }
+
+    public static interface VoidInvoker0 {
+        void invoke(Object $i);
+    }
+
+    public static interface VoidInvoker1 {
+        void invoke(Object $i, Object a0);
+    }
+
+    public static interface VoidInvoker2 {
+        void invoke(Object $i, Object a0, Object a1);
+    }
+
+    public static interface VoidInvoker3 {
+        void invoke(Object $i, Object a0, Object a1, Object a2);
+    }
+
+    public static interface VoidInvoker4 {
+        void invoke(Object $i, Object a0, Object a1, Object a2, Object a3);
+    }
+
+    private static final Class<?>[] INVOKERS = {
+            Invoker0.class,
+            Invoker1.class,
+            Invoker2.class,
+            Invoker3.class,
+            Invoker4.class
+    };
+
+    private static final Class<?>[] VOID_INVOKERS = {
+            VoidInvoker0.class,
+            VoidInvoker1.class,
+            VoidInvoker2.class,
+            VoidInvoker3.class,
+            VoidInvoker4.class
+    };
+
+    /* ---------------- */
+    /* Factories        */
+    /* ---------------- */
+
+    static MethodInvoker forMethod(@NonNull Method method) {
+        return CACHE.get(method.getDeclaringClass()).methods.computeIfAbsent(method, _Invokers::createMethodInvoker);
+    }
+
+    static FieldGetter forGetter(@NonNull Field field) {
+        return CACHE.get(field.getDeclaringClass()).getters.computeIfAbsent(field, _Invokers::createGetter);
+    }
+
+    /**
+     * @return null, if the field is final.
+     */
+    static @Nullable FieldSetter forSetter(@NonNull Field field) {
+        return CACHE.get(field.getDeclaringClass()).setters
+            .computeIfAbsent(field, (f) -> Optional.ofNullable(createSetter(f)))
+            .orElse(null);
+    }
+
+    @SneakyThrows
+    private static MethodInvoker createMethodInvoker(Method method) {
+        assert !Modifier.isStatic(method.getModifiers()) : "Static methods are not supported: " + method;
+
+        MethodHandles.Lookup lookup = lookupFor(method);
+        MethodHandle handle = lookup.unreflect(method);
+        int arity = method.getParameterCount();
+
+        if (arity <= MAX_SPUN_ARITY) {
+            try {
+                return spin(lookup, handle, arity, method.getReturnType() == void.class);
+            } catch (LambdaConversionException e) {
+                // We don't have full access to the target (e.g it's in another module), fall
+                // back to the method handle.
+            }
+        }
+
+        MethodHandle spreader = handle
+            .asType(MethodType.genericMethodType(arity + 1))
+            .asSpreader(Object[].class, arity);
+
+        return (instance, args) -> (Object) spreader.invokeExact(instance, args);
+    }
+
+    @SneakyThrows
+    private static FieldGetter createGetter(Field field) {
+        MethodHandle handle = lookupFor(field)
+            .unreflectGetter(field)
+            .asType(MethodType.methodType(Object.class, Object.class));
+
+        return (instance) -> (Object) handle.invokeExact(instance);
+    }
+
+    @SneakyThrows
+    private static @Nullable FieldSetter createSetter(Field field) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+
+        MethodHandle handle = lookupFor(field)
+            .unreflectSetter(field)
+            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        return (instance, value) -> handle.invokeExact(instance, value);
+    }
+
+    private static MethodHandles.Lookup lookupFor(Member member) {
+        try {
+            return MethodHandles.privateLookupIn(member.getDeclaringClass(), MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            // The package isn't open to us, we can still reach public members.
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    private static MethodInvoker spin(MethodHandles.Lookup lookup, MethodHandle handle, int arity, boolean isVoid) throws Throwable {
+        Class<?> type = (isVoid ? VOID_INVOKERS : INVOKERS)[arity];
+
+        MethodType erased = MethodType.genericMethodType(arity + 1);
+        MethodType instantiated = handle.type().wrap();
+
+        if (isVoid) {
+            erased = erased.changeReturnType(void.class);
+            instantiated = instantiated.changeReturnType(void.class);
+        }
+
+        Object invoker = LambdaMetafactory
+            .metafactory(lookup, "invoke", MethodType.methodType(type), erased, handle, instantiated)
+            .getTarget()
+            .invoke();
+
+        if (isVoid) {
+            switch (arity) {
+                case 0: {
+                    VoidInvoker0 inv = (VoidInvoker0) invoker;
+                    return (i, a) -> {
+                        inv.invoke(i);
+                        return null;
+                    };
+                }
+                case 1: {
+                    VoidInvoker1 inv = (VoidInvoker1) invoker;
+                    return (i, a) -> {
+                        inv.invoke(i, a[0]);
+                        return null;
+                    };
+                }
+                case 2: {
+                    VoidInvoker2 inv = (VoidInvoker2) invoker;
+                    return (i, a) -> {
+                        inv.invoke(i, a[0], a[1]);
+                        return null;
+                    };
+                }
+                case 3: {
+                    VoidInvoker3 inv = (VoidInvoker3) invoker;
+                    return (i, a) -> {
+                        inv.invoke(i, a[0], a[1], a[2]);
+                        return null;
+                    };
+                }
+                case 4: {
+                    VoidInvoker4 inv = (VoidInvoker4) invoker;
+                    return (i, a) -> {
+                        inv.invoke(i, a[0], a[1], a[2], a[3]);
+                        return null;
+                    };
+                }
+            }
+        } else {
+            switch (arity) {
+                case 0: {
+                    Invoker0 inv = (Invoker0) invoker;
+                    return (i, a) -> inv.invoke(i);
+                }
+                case 1: {
+                    Invoker1 inv = (Invoker1) invoker;
+                    return (i, a) -> inv.invoke(i, a[0]);
+                }
+                case 2: {
+                    Invoker2 inv = (Invoker2) invoker;
+                    return (i, a) -> inv.invoke(i, a[0], a[1]);
+                }
+                case 3: {
+                    Invoker3 inv = (Invoker3) invoker;
+                    return (i, a) -> inv.invoke(i, a[0], a[1], a[2]);
+                }
+                case 4: {
+                    Invoker4 inv = (Invoker4) invoker;
+                    return (i, a) -> inv.invoke(i, a[0], a[1], a[2], a[3]);
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported arity: " + arity);
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonElement;
+import co.casterlabs.rakurai.json.element.JsonNull;
+import co.casterlabs.rakurai.json.element.JsonObject;
+import co.casterlabs.rakurai.json.element.JsonString;
+import lombok.NonNull;
+
+/**
+ * Computes RFC 6902 JSON patches (only add, remove and replace), used to send
+ * mutations without re-sending the whole value. Arrays are compared index by
+ * index, so inserting at the front of a list is a replace of every element.
+ * The caller is expected to fall back to sending the full value when that's
+ * smaller.
+ */
+class _JsonPatch {
+
+    /**
+     * @return the patch as a JSON array, or null if the values are equal.
+     */
+    static @Nullable String diff(@NonNull JsonElement from, @NonNull JsonElement to) {
+        StringBuilder patch = new StringBuilder("[");
+        diff(patch, "", from, to);
+
+        if (patch.length() == 1) {
+            return null;
+        }
+
+        return patch.append(']').toString();
+    }
+
+    private static void diff(StringBuilder patch, String path, @Nullable JsonElement from, @Nullable JsonElement to) {
+        if (from == null) from = JsonNull.INSTANCE;
+        if (to == null) to = JsonNull.INSTANCE;
+
+        if (from.isJsonObject() && to.isJsonObject()) {
+            JsonObject fromObject = from.getAsObject();
+            JsonObject toObject = to.getAsObject();
+
+            for (String key : fromObject.keySet()) {
+                if (!toObject.containsKey(key)) {
+                    op(patch, "remove", path + '/' + escape(key), null);
+                }
+            }
+
+            for (String key : toObject.keySet()) {
+                if (fromObject.containsKey(key)) {
+                    diff(patch, path + '/' + escape(key), fromObject.get(key), toObject.get(key));
+                } else {
+                    op(patch, "add", path + '/' + escape(key), toObject.get(key));
+                }
+            }
+        } else if (from.isJsonArray() && to.isJsonArray()) {
+            JsonArray fromArray = from.getAsArray();
+            JsonArray toArray = to.getAsArray();
+            int common = Math.min(fromArray.size(), toArray.size());
+
+            for (int i = 0; i < common; i++) {
+                diff(patch, path + '/' + i, fromArray.get(i), toArray.get(i));
+            }
+
+            // Remove from the end, so the indices stay valid.
+            for (int i = fromArray.size() - 1; i >= common; i--) {
+                op(patch, "remove", path + '/' + i, null);
+            }
+
+            for (int i = common; i < toArray.size(); i++) {
+                op(patch, "add", path + "/-", toArray.get(i));
+            }
+        } else if (!from.toString().equals(to.toString())) {
+            op(patch, "replace", path, to);
+        }
+    }
+
+    private static void op(StringBuilder patch, String op, String path, @Nullable JsonElement value) {
+        if (patch.length() > 1) {
+            patch.append(',');
+        }
+
+        patch
+            .append("{\"op\":\"").append(op)
+            .append("\",\"path\":").append(new JsonString(path));
+
+        if (!op.equals("remove")) {
+            patch.append(",\"value\":").append(value == null ? JsonNull.INSTANCE : value);
+        }
+
+        patch.append('}');
+    }
+
+    /**
+     * Escapes a key for use in a JSON pointer (RFC 6901).
+     */
+    private static String escape(String key) {
+        return key
+            .replace("~", "~0")
+            .replace("/", "~1");
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Schedules the bridge calls to a single {@link JavascriptObject}. Exclusive
+ * calls run alone, shared calls may run alongside other shared calls, and
+ * waiting calls are started by {@link JavascriptPriority} and then in arrival
+ * order (so a waiting exclusive call can't be starved by a stream of shared
+ * ones of the same priority).
+ * 
+ * Calls that can't start right away are queued rather than blocking, and are
+ * started on the executor once the calls ahead of them finish. Only the
+ * synchronous part of a call is guarded, a returned future completes on its
+ * own time.
+ */
+class _ObjectMailbox {
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>(
+        Comparator.<Task<?>>comparingInt((t) -> t.priority.ordinal()).thenComparingLong((t) -> t.sequence)
+    );
+    private long sequence = 0;
+    private int readers = 0;
+    private boolean writing = false;
+
+    @FunctionalInterface
+    static interface Work<T> {
+        CompletionStage<T> call() throws Throwable;
+    }
+
+    <T> CompletionStage<T> submit(boolean exclusive, JavascriptPriority.Level priority, Work<T> work, Executor executor) {
+        Task<T> task = new Task<>(exclusive, priority, work, executor);
+
+        synchronized (this) {
+            // Higher priority calls can jump ahead of the ones that are waiting.
+            boolean behind = !this.queue.isEmpty() && (this.queue.peek().priority.compareTo(priority) <= 0);
+
+            if (behind || !this.canStart(exclusive)) {
+                task.sequence = this.sequence++;
+                this.queue.add(task);
+                return task.result;
+            }
+
+            this.acquire(exclusive);
+        }
+
+        // Uncontended, so we just run it on the calling thread.
+        task.run();
+        return task.result;
+    }
+
+    private boolean canStart(boolean exclusive) {
+        return exclusive ? (!this.writing && (this.readers == 0)) : !this.writing;
+    }
+
+    private void acquire(boolean exclusive) {
+        if (exclusive) {
+            this.writing = true;
+        } else {
+            this.readers++;
+        }
+    }
+
+    /**
+     * @return the queued tasks that can start now, already acquired.
+     */
+    private synchronized List<Task<?>> release(boolean exclusive) {
+        if (exclusive) {
+            this.writing = false;
+        } else {
+            this.readers--;
+        }
+
+        List<Task<?>> ready = new ArrayList<>(1);
+        while (!this.queue.isEmpty() && this.canStart(this.queue.peek().exclusive)) {
+            Task<?> next = this.queue.poll();
+            this.acquire(next.exclusive);
+            ready.add(next);
+        }
+        return ready;
+    }
+
+    private class Task<T> implements Runnable {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final boolean exclusive;
+        private final JavascriptPriority.Level priority;
+        private final Work<T> work;
+        private final Executor executor;
+        private long sequence;
+
+        Task(boolean exclusive, JavascriptPriority.Level priority, Work<T> work, Executor executor) {
+            this.exclusive = exclusive;
+            this.priority = priority;
+            this.work = work;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.work.call().whenComplete((value, t) -> {
+                    if (t == null) {
+                        this.result.complete(value);
+                    } else {
+                        this.result.completeExceptionally(t);
+                    }
+                });
+            } catch (Throwable t) {
+                this.result.completeExceptionally(t);
+            } finally {
+                for (Task<?> next : release(this.exclusive)) {
+                    next.start();
+                }
+            }
+        }
+
+        private void start() {
+            try {
+                this.executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                this.result.completeExceptionally(e);
+
+                for (Task<?> next : release(this.exclusive)) {
+                    next.start();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.NonNull;
+
+/**
+ * Maps the numeric handles used on the wire to {@link JavascriptObject}s. Only
+ * weak references are kept, the bridge holds its named objects strongly and
+ * sub-objects are kept alive by their parents. Once an object is collected
+ * (or explicitly released) its handle is passed to {@code onRelease} so that
+ * Javascript can drop it too.
+ */
+class _ObjectRegistry {
+    private final ReferenceQueue<JavascriptObject> queue = new ReferenceQueue<>();
+    private final Map<Integer, Handle> handles = new ConcurrentHashMap<>();
+    private final AtomicInteger handleCounter = new AtomicInteger();
+
+    private final Consumer<int[]> onRelease;
+
+    _ObjectRegistry(@NonNull Consumer<int[]> onRelease) {
+        this.onRelease = onRelease;
+    }
+
+    int register(@NonNull JavascriptObject object) {
+        this.expunge();
+
+        int handle = this.handleCounter.incrementAndGet();
+        this.handles.put(handle, new Handle(object, handle, this.queue));
+        return handle;
+    }
+
+    /**
+     * @return the object, or null if it was released.
+     */
+    @Nullable
+    JavascriptObject get(int handle) {
+        this.expunge();
+
+        Handle ref = this.handles.get(handle);
+        return ref == null ? null : ref.get();
+    }
+
+    void release(int handle) {
+        Handle ref = this.handles.remove(handle);
+        if (ref != null) {
+            ref.clear();
+            this.onRelease.accept(new int[] {
+                    handle
+            });
+        }
+    }
+
+    int size() {
+        this.expunge();
+        return this.handles.size();
+    }
+
+    private void expunge() {
+        int[] released = null;
+        int count = 0;
+
+        Handle ref;
+        while ((ref = (Handle) this.queue.poll()) != null) {
+            if (!this.handles.remove(ref.handle, ref)) continue;
+
+            if (released == null) {
+                released = new int[8];
+            } else if (count == released.length) {
+                released = Arrays.copyOf(released, count * 2);
+            }
+            released[count++] = ref.handle;
+        }
+
+        if (count > 0) {
+            this.onRelease.accept(Arrays.copyOf(released, count));
+        }
+    }
+
+    private static class Handle extends WeakReference<JavascriptObject> {
+        private final int handle;
+
+        Handle(JavascriptObject referent, int handle, ReferenceQueue<JavascriptObject> queue) {
+            super(referent, queue);
+            this.handle = handle;
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The executors behind {@link JavascriptPriority}'s lanes. NORMAL calls run
+ * right away on the bind thread they arrived on. INTERACTIVE and BULK calls
+ * each hop once to their own pool (created on first use), so that neither
+ * waits for a thread behind the other or behind NORMAL calls. Both pools have
+ * bounded queues, calls that don't fit are rejected rather than piling up.
+ */
+class _PriorityLanes {
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+
+    static final int INTERACTIVE_QUEUE_CAPACITY = 256;
+    static final int BULK_QUEUE_CAPACITY = 1024;
+
+    private final Supplier<Executor> normalExecutor;
+    private final Map<JavascriptPriority.Level, BridgeLaneMetrics> metrics = new EnumMap<>(JavascriptPriority.Level.class);
+
+    private volatile Executor interactiveExecutor;
+    private volatile Executor bulkExecutor;
+
+    _PriorityLanes(Supplier<Executor> normalExecutor) {
+        this.normalExecutor = normalExecutor;
+
+        for (JavascriptPriority.Level level : JavascriptPriority.Level.values()) {
+            this.metrics.put(level, new BridgeLaneMetrics(level));
+        }
+    }
+
+    BridgeLaneMetrics getMetrics(JavascriptPriority.Level level) {
+        return this.metrics.get(level);
+    }
+
+    @FunctionalInterface
+    static interface Scheduler<T> {
+        CompletionStage<T> schedule(_ObjectMailbox.Work<T> work) throws Throwable;
+    }
+
+    /**
+     * Runs the work in the lane, which is expected to be called from a bind
+     * thread (or the UI thread, for a sync bridge). The scheduler is given the
+     * work to start (e.g by way of a {@link _ObjectMailbox}), the time until it
+     * actually starts is recorded as the call's wait.
+     */
+    <T> CompletionStage<T> submit(JavascriptPriority.Level level, Scheduler<T> scheduler, _ObjectMailbox.Work<T> work) {
+        BridgeLaneMetrics metrics = this.metrics.get(level);
+        metrics.recordQueued();
+
+        long queuedAt = System.nanoTime();
+        AtomicBoolean started = new AtomicBoolean();
+
+        _ObjectMailbox.Work<T> timed = () -> {
+            started.set(true);
+            metrics.recordStarted(System.nanoTime() - queuedAt);
+            return work.call();
+        };
+
+        CompletionStage<T> result;
+        if (level == JavascriptPriority.Level.NORMAL) {
+            // We're already on the bind executor, no need to hop.
+            try {
+                result = scheduler.schedule(timed);
+            } catch (Throwable t) {
+                result = CompletableFuture.failedFuture(t);
+            }
+        } else {
+            CompletableFuture<T> future = new CompletableFuture<>();
+
+            try {
+                this.getExecutor(level).execute(() -> {
+                    try {
+                        scheduler.schedule(timed).whenComplete((value, t) -> {
+                            if (t == null) {
+                                future.complete(value);
+                            } else {
+                                future.completeExceptionally(t);
+                            }
+                        });
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+
+            result = future;
+        }
+
+        return result.whenComplete((value, t) -> {
+            if (!started.get()) {
+                // Rejected (or otherwise failed) before it ever got to run.
+                metrics.recordRejected();
+            }
+        });
+    }
+
+    /**
+     * @return the lane's executor, also used to resume calls that waited on a
+     *         {@link JavascriptConcurrency} mailbox.
+     */
+    Executor getExecutor(JavascriptPriority.Level level) {
+        switch (level) {
+            case INTERACTIVE:
+                if (this.interactiveExecutor == null) {
+                    synchronized (this) {
+                        if (this.interactiveExecutor == null) {
+                            this.interactiveExecutor = createPool("Interactive", Math.max(2, CPUS / 2), Thread.MAX_PRIORITY, INTERACTIVE_QUEUE_CAPACITY);
+                        }
+                    }
+                }
+                return this.interactiveExecutor;
+
+            case BULK:
+                if (this.bulkExecutor == null) {
+                    synchronized (this) {
+                        if (this.bulkExecutor == null) {
+                            this.bulkExecutor = createPool("Bulk", Math.max(1, CPUS / 2), Thread.MIN_PRIORITY, BULK_QUEUE_CAPACITY);
+                        }
+                    }
+                }
+                return this.bulkExecutor;
+
+            case NORMAL:
+            default:
+                return this.normalExecutor.get();
+        }
+    }
+
+    private static Executor createPool(String name, int threads, int priority, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            (r) -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                t.setPriority(priority);
+                t.setName("Webview Bridge " + name + " Thread - #" + threadCount.incrementAndGet());
+                return t;
+            }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+}
@@ -0,0 +1,416 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+
+import co.casterlabs.rakurai.json.Rson;
+
+/**
+ * A function result that's sent to Javascript in chunks, as Javascript asks
+ * for them. Chunks hold at most {@link #MAX_CHUNK_ITEMS} items and stop
+ * growing once they reach {@link #MAX_CHUNK_CHARS}, so a huge result never
+ * needs to be in memory (or on the wire) all at once.
+ * 
+ * Pulls never block waiting for items, a pull that has nothing to send yet
+ * completes once the next item (or the end) arrives.
+ */
+abstract class _ResultStream {
+    static final int MAX_CHUNK_ITEMS = 256;
+    static final int MAX_CHUNK_CHARS = 64 * 1024;
+
+    private static final String DONE = "{\"items\":[],\"done\":true}";
+
+    private final AtomicInteger activePulls = new AtomicInteger();
+    private volatile long lastActive = System.nanoTime();
+    private boolean closed = false;
+
+    /**
+     * @return a stream for the result, or null if the result should be sent
+     *         as-is.
+     */
+    static @Nullable _ResultStream of(@Nullable Object result) {
+        if (result instanceof Stream) {
+            Stream<?> stream = (Stream<?>) result;
+            return new IteratorResultStream(stream.iterator(), stream::close);
+        } else if (result instanceof Iterator) {
+            AutoCloseable closeable = (result instanceof AutoCloseable) ? (AutoCloseable) result : null;
+            return new IteratorResultStream((Iterator<?>) result, closeable);
+        } else if (result instanceof Flow.Publisher) {
+            return new PublisherResultStream((Flow.Publisher<?>) result);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return the next chunk, as {@code {"items":[...],"done":false}}. The
+     *         stream closes itself after the last chunk.
+     */
+    CompletionStage<String> pull() {
+        if (this.isClosed()) {
+            return CompletableFuture.completedFuture(DONE);
+        }
+
+        this.activePulls.incrementAndGet();
+
+        CompletionStage<String> chunk;
+        try {
+            chunk = this.read();
+        } catch (Throwable t) {
+            chunk = CompletableFuture.failedFuture(t);
+        }
+
+        return chunk.whenComplete((unused, t) -> {
+            this.lastActive = System.nanoTime();
+            this.activePulls.decrementAndGet();
+
+            if (t != null) {
+                this.close();
+            }
+        });
+    }
+
+    /**
+     * @return whether or not Javascript has left the stream alone for longer
+     *         than the timeout, a pull that's waiting on items doesn't count.
+     */
+    boolean isIdle(long timeoutNanos) {
+        return (this.activePulls.get() == 0) && ((System.nanoTime() - this.lastActive) > timeoutNanos);
+    }
+
+    /**
+     * @return the next chunk, see {@link #chunk(CharSequence, boolean)}.
+     */
+    protected abstract CompletionStage<String> read() throws Throwable;
+
+    protected abstract void onClose() throws Exception;
+
+    synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    void close() {
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+        }
+
+        try {
+            this.onClose();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    protected static void appendItem(StringBuilder items, int index, @Nullable Object item) {
+        if (index > 0) items.append(',');
+        items.append(Rson.DEFAULT.toJson(item));
+    }
+
+    protected static boolean isFull(StringBuilder items, int count) {
+        return (count >= MAX_CHUNK_ITEMS) || (items.length() >= MAX_CHUNK_CHARS);
+    }
+
+    protected static String chunk(CharSequence items, boolean done) {
+        return String.format("{\"items\":[%s],\"done\":%b}", items, done);
+    }
+
+    private static class IteratorResultStream extends _ResultStream {
+        private final Iterator<?> iterator;
+        private final @Nullable AutoCloseable closeable;
+
+        private boolean reading = false;
+        private boolean closeAfterRead = false;
+
+        IteratorResultStream(Iterator<?> iterator, @Nullable AutoCloseable closeable) {
+            this.iterator = iterator;
+            this.closeable = closeable;
+        }
+
+        @Override
+        protected CompletionStage<String> read() throws Throwable {
+            synchronized (this) {
+                if (this.reading) {
+                    throw new IllegalStateException("The stream is already being pulled.");
+                }
+                this.reading = true;
+            }
+
+            StringBuilder items = new StringBuilder();
+            boolean done;
+            try {
+                int count = 0;
+                while (!isFull(items, count) && this.iterator.hasNext()) {
+                    appendItem(items, count++, this.iterator.next());
+                }
+                done = !this.iterator.hasNext();
+            } finally {
+                this.finishRead();
+            }
+
+            if (done) {
+                this.close();
+            }
+
+            return CompletableFuture.completedFuture(chunk(items, done));
+        }
+
+        private void finishRead() throws Exception {
+            boolean close;
+            synchronized (this) {
+                this.reading = false;
+                close = this.closeAfterRead;
+            }
+
+            if (close) {
+                this.closeUnderlying();
+            }
+        }
+
+        @Override
+        protected void onClose() throws Exception {
+            synchronized (this) {
+                if (this.reading) {
+                    // Don't pull the iterator out from under the read, it closes it once done.
+                    this.closeAfterRead = true;
+                    return;
+                }
+            }
+
+            this.closeUnderlying();
+        }
+
+        private void closeUnderlying() throws Exception {
+            if (this.closeable != null) {
+                this.closeable.close();
+            }
+        }
+
+    }
+
+    /**
+     * Only requests as many items from the publisher as fit in a chunk, so the
+     * publisher is held back until Javascript asks for more. A pull with nothing
+     * to send is completed by whichever of the subscriber's signals comes next,
+     * on the publisher's thread.
+     */
+    private static class PublisherResultStream extends _ResultStream implements Flow.Subscriber<Object> {
+        private static final Object NULL = new Object();
+
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private @Nullable Flow.Subscription subscription;
+        private long unrequested = 0;
+        private long outstanding = 0;
+        private boolean completed = false;
+        private @Nullable Throwable error;
+
+        private @Nullable CompletableFuture<String> waiting;
+
+        @SuppressWarnings("unchecked")
+        PublisherResultStream(Flow.Publisher<?> publisher) {
+            ((Flow.Publisher<Object>) publisher).subscribe(this);
+        }
+
+        /* ---------------- */
+        /* Subscriber       */
+        /* ---------------- */
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            long demand;
+            synchronized (this) {
+                if ((this.subscription != null) || this.isClosed()) {
+                    demand = -1;
+                } else {
+                    this.subscription = subscription;
+                    demand = this.unrequested;
+                    this.unrequested = 0;
+                }
+            }
+
+            if (demand < 0) {
+                subscription.cancel();
+            } else if (demand > 0) {
+                subscription.request(demand);
+            }
+        }
+
+        @Override
+        public void onNext(Object item) {
+            CompletableFuture<String> waiting;
+            synchronized (this) {
+                this.outstanding--;
+                this.queue.add(item == null ? NULL : item);
+
+                waiting = this.waiting;
+                this.waiting = null;
+            }
+
+            if (waiting != null) {
+                this.settle(waiting);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            this.finish(t);
+        }
+
+        @Override
+        public void onComplete() {
+            this.finish(null);
+        }
+
+        private void finish(@Nullable Throwable t) {
+            CompletableFuture<String> waiting;
+            synchronized (this) {
+                this.completed = true;
+                this.error = t;
+
+                waiting = this.waiting;
+                this.waiting = null;
+            }
+
+            if (waiting != null) {
+                this.settle(waiting);
+            }
+        }
+
+        /* ---------------- */
+        /* Stream           */
+        /* ---------------- */
+
+        @Override
+        protected CompletionStage<String> read() {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            Flow.Subscription subscription;
+            long demand;
+            boolean ready;
+
+            synchronized (this) {
+                if (this.waiting != null) {
+                    throw new IllegalStateException("The stream is already being pulled.");
+                }
+
+                demand = Math.max(0, MAX_CHUNK_ITEMS - this.outstanding - this.queue.size());
+                this.outstanding += demand;
+
+                subscription = this.subscription;
+                if (subscription == null) {
+                    // Requested once the publisher gets around to subscribing us.
+                    this.unrequested += demand;
+                    demand = 0;
+                }
+
+                ready = this.completed || !this.queue.isEmpty();
+                if (!ready) {
+                    this.waiting = result;
+                }
+            }
+
+            if (ready) {
+                this.settle(result);
+            }
+
+            if (demand > 0) {
+                // The publisher may well answer on this thread, completing the result.
+                subscription.request(demand);
+            }
+
+            return result;
+        }
+
+        /**
+         * Completes the pull with whatever items are available.
+         */
+        private void settle(CompletableFuture<String> result) {
+            String chunk;
+            boolean done;
+            try {
+                synchronized (this) {
+                    chunk = this.drain();
+                    done = this.completed && this.queue.isEmpty() && (this.error == null);
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+
+            if (done) {
+                this.close();
+            }
+            result.complete(chunk);
+        }
+
+        private String drain() throws Throwable {
+            StringBuilder items = new StringBuilder();
+            int count = 0;
+
+            while (!isFull(items, count) && !this.queue.isEmpty()) {
+                Object item = this.queue.poll();
+                appendItem(items, count++, item == NULL ? null : item);
+            }
+
+            boolean done = this.completed && this.queue.isEmpty();
+            if (done && (this.error != null)) {
+                if (count == 0) {
+                    throw this.error;
+                }
+                done = false; // Send what we have first, the next pull will throw.
+            }
+
+            return chunk(items, done);
+        }
+
+        @Override
+        protected void onClose() {
+            Flow.Subscription subscription;
+            CompletableFuture<String> waiting;
+            synchronized (this) {
+                subscription = this.subscription;
+                waiting = this.waiting;
+                this.waiting = null;
+                this.queue.clear();
+            }
+
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            if (waiting != null) {
+                waiting.complete(DONE);
+            }
+        }
+
+    }
+
+}
@@ -25,25 +25,35 @@ package dev.webview.webview_java.bridge.util;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
 
-import co.casterlabs.commons.async.AsyncTask;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 
 /**
  * This basically works by checking the hashCode of the value in a field and
- * comparing it against a known value.
+ * comparing it against a known value. All listeners share a single polling
+ * thread.
+ * 
+ * @deprecated Polling is expensive and misses changes that revert between
+ *             polls, use {@link dev.webview.webview_java.bridge.JavascriptProperty}
+ *             instead.
  */
+@Deprecated
 public class ReflectionFieldMutationListener {
     private static final int POLL_INTERVAL = 25;
     private static final int NULL_V = 0;
 
+    private static final ScheduledExecutorService POLLER = createPoller();
+
     private Field field;
     private WeakReference<Object> $inst;
-    private AsyncTask task;
+    private ScheduledFuture<?> task;
     private int lastHash;
 
     private @Nullable Consumer<@Nullable Object> onMutate;
@@ -57,50 +67,61 @@ public class ReflectionFieldMutationListener {
         this.$inst = instance;
         this.lastHash = 0;
 
-        this.task = AsyncTask.create(this::asyncChecker);
+        this.task = POLLER.scheduleWithFixedDelay(this::check, POLL_INTERVAL, POLL_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Note that the consumer must not strongly reference the instance, otherwise
+     * the listener will keep it alive forever.
+     */
     @SuppressWarnings("unchecked")
     public <T> void onMutate(@Nullable final Consumer<@Nullable T> consumer) {
         this.onMutate = (Consumer<Object>) consumer;
     }
 
-    @SneakyThrows
-    private void asyncChecker() {
-        while (true) {
-            Object instance = null;
+    private void check() {
+        Object instance = null;
 
-            if ($inst != null) {
-                instance = $inst.get();
+        if ($inst != null) {
+            instance = $inst.get();
 
-                if (instance == null) {
-                    return; // We lost the reference, close the handler entirely.
-                }
+            if (instance == null) {
+                this.stopWatching(); // We lost the reference, close the handler entirely.
+                return;
             }
+        }
 
-            try {
-                int currentHash = getHashCodeForField(this.field, instance);
+        try {
+            int currentHash = getHashCodeForField(this.field, instance);
 
-                if (this.lastHash != currentHash) {
-                    this.lastHash = currentHash;
+            if (this.lastHash != currentHash) {
+                this.lastHash = currentHash;
 
-                    if (this.onMutate != null) {
-                        this.onMutate.accept(
-                            this.field.get(instance)
-                        );
-                    }
+                if (this.onMutate != null) {
+                    this.onMutate.accept(
+                        this.field.get(instance)
+                    );
                 }
-            } catch (Throwable t) {
-                // We ignore any exception thrown.
             }
-
-            Thread.yield();
-            Thread.sleep(POLL_INTERVAL);
+        } catch (Throwable t) {
+            // We ignore any exception thrown.
         }
     }
 
+    private static ScheduledExecutorService createPoller() {
+        ScheduledThreadPoolExecutor poller = new ScheduledThreadPoolExecutor(1, (r) -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("Webview Bridge Mutation Poller");
+            return t;
+        });
+        // Otherwise stopped listeners would sit in the queue forever.
+        poller.setRemoveOnCancelPolicy(true);
+        return poller;
+    }
+
     public void stopWatching() {
-        this.task.cancel();
+        this.task.cancel(false);
     }
 
     private static int getHashCodeForField(Field field, Object instance) throws IllegalArgumentException, IllegalAccessException {
@@ -7,6 +7,102 @@ if (!window.Bridge) {
     }
 
     let listeners = {};
+    let mutations = {};
+    let propertyCaches = {}; // "id:property" -> { value: Promise }
+    let pendingCalls = [];
+    let pendingBatches = {}; // batch id -> { calls, remaining }
+    let callCounter = 0;
+
+    // Sends everything that was queued during this microtask as a single message.
+    function flushCalls() {
+        const calls = pendingCalls;
+        pendingCalls = [];
+
+        if (calls.length === 1) {
+            const [call] = calls;
+            __bridgeInternal(call.type, call.data).then(call.resolve, call.reject);
+            return;
+        }
+
+        // Results that are ready are in the reply, the rest arrive one by one via
+        // Bridge.__internal.batchResult() so that a slow call doesn't hold up the others.
+        const batch = randomId();
+        pendingBatches[batch] = { calls, remaining: calls.length };
+
+        __bridgeInternal(
+            "BATCH",
+            calls.map((call) => [call.type, call.data]),
+            batch
+        )
+            .then((results) => {
+                results.forEach((result, idx) => {
+                    if (result) {
+                        settleBatchedCall(batch, idx, result);
+                    }
+                });
+            })
+            .catch((e) => {
+                const pending = pendingBatches[batch];
+                if (!pending) return;
+                delete pendingBatches[batch];
+                pending.calls.forEach((call) => call && call.reject(e));
+            });
+    }
+
+    function settleBatchedCall(batch, idx, result) {
+        const pending = pendingBatches[batch];
+        if (!pending || !pending.calls[idx]) return;
+
+        const call = pending.calls[idx];
+        pending.calls[idx] = null;
+        if (--pending.remaining === 0) {
+            delete pendingBatches[batch];
+        }
+
+        if ("error" in result) {
+            call.reject(result.error);
+        } else {
+            call.resolve(result.result);
+        }
+    }
+
+    // Applies an RFC 6902 patch (add, remove and replace only), returns the new root.
+    function applyPatch(value, patch) {
+        for (const { op, path, value: opValue } of patch) {
+            if (path === "") {
+                value = op === "remove" ? undefined : opValue;
+                continue;
+            }
+
+            const parts = path
+                .substring(1)
+                .split("/")
+                .map((part) => part.replace(/~1/g, "/").replace(/~0/g, "~"));
+            const last = parts.pop();
+
+            let target = value;
+            for (const part of parts) {
+                target = target[part];
+            }
+
+            if (Array.isArray(target)) {
+                const index = last === "-" ? target.length : Number(last);
+
+                if (op === "add") {
+                    target.splice(index, 0, opValue);
+                } else if (op === "remove") {
+                    target.splice(index, 1);
+                } else {
+                    target[index] = opValue;
+                }
+            } else if (op === "remove") {
+                delete target[last];
+            } else {
+                target[last] = opValue;
+            }
+        }
+        return value;
+    }
     const Bridge = {
         on(type, callback) {
             if (typeof type !== "string" || !(callback instanceof Function)) {
@@ -36,8 +132,18 @@ if (!window.Bridge) {
         __internal: {
             listeners: listeners,
 
+            batchResult(batch, idx, result) {
+                settleBatchedCall(batch, idx, result);
+            },
+
             sendMessageToJava(type, data) {
-                return __bridgeInternal(type, data);
+                return new Promise((resolve, reject) => {
+                    pendingCalls.push({ type, data, resolve, reject });
+
+                    if (pendingCalls.length === 1) {
+                        queueMicrotask(flushCalls);
+                    }
+                });
             },
 
             defineObject(path, id) {
@@ -65,22 +171,28 @@ if (!window.Bridge) {
 
                         defineFunction(name) {
                             Object.defineProperty(object, name, {
-                                value: function () {
-                                    return Bridge.__internal.invoke(
-                                        id,
-                                        name,
-                                        Array.from(arguments)
-                                    );
+                                value: function (...args) {
+                                    // An AbortSignal as the last argument makes the call cancellable.
+                                    if (typeof AbortSignal !== "undefined" && args[args.length - 1] instanceof AbortSignal) {
+                                        const signal = args.pop();
+                                        return Bridge.__internal.invokeCancellable(id, name, args, signal);
+                                    }
+
+                                    return Bridge.__internal.invoke(id, name, args);
                                 },
                             });
                         },
 
-                        defineProperty(name) {
+                        defineProperty(name, cache) {
                             Object.defineProperty(object, name, {
                                 value: null,
                                 writable: true,
                                 configurable: true,
                             });
+
+                            if (cache) {
+                                Bridge.__internal.defineCache(id, name);
+                            }
                         },
                     },
                 };
@@ -91,9 +203,18 @@ if (!window.Bridge) {
                             return obj[property];
                         }
 
+                        if (propertyCaches[`${id}:${property}`]) {
+                            return Bridge.__internal.getCached(id, property);
+                        }
+
                         return Bridge.__internal.get(id, property);
                     },
                     set(obj, property, value) {
+                        const cache = propertyCaches[`${id}:${property}`];
+                        if (cache) {
+                            delete cache.value; // Java may transform it.
+                        }
+
                         Bridge.__internal.set(id, property, value);
                         return value;
                     },
@@ -116,6 +237,81 @@ if (!window.Bridge) {
                 });
             },
 
+            removeObject(path) {
+                path = path.split(".");
+                const propertyName = path.pop();
+
+                // Resolve the root object.
+                let root = window;
+                for (const part of path) {
+                    root = root && root[part];
+                }
+
+                if (root) {
+                    delete root[propertyName];
+                }
+            },
+
+            release(ids) {
+                // Drop any mutation listeners and caches, the objects themselves are gone on the Java side.
+                for (const id of ids) {
+                    const prefix = `__internal:mut:${id}:`;
+                    const invalidationPrefix = `__internal:inv:${id}:`;
+                    for (const type of Object.keys(listeners)) {
+                        if (type.startsWith(prefix) || type.startsWith(invalidationPrefix)) {
+                            delete listeners[type];
+                        }
+                    }
+                    for (const type of Object.keys(mutations)) {
+                        if (type.startsWith(prefix)) {
+                            delete mutations[type];
+                        }
+                    }
+                    for (const key of Object.keys(propertyCaches)) {
+                        if (key.startsWith(`${id}:`)) {
+                            delete propertyCaches[key];
+                        }
+                    }
+                }
+            },
+
+            defineCache(id, property) {
+                const key = `${id}:${property}`;
+                if (propertyCaches[key]) return; // Already listening.
+
+                const cache = {};
+                propertyCaches[key] = cache;
+
+                // Mutations either carry the new value or a patch, in which case we just get it again.
+                const update = (message) => {
+                    if (message && "value" in message) {
+                        cache.value = Promise.resolve(message.value);
+                    } else {
+                        delete cache.value;
+                    }
+                };
+                Bridge.on(`__internal:mut:${id}:${property}`, update);
+                Bridge.on(`__internal:inv:${id}:${property}`, update);
+            },
+
+            getCached(id, property) {
+                const cache = propertyCaches[`${id}:${property}`];
+
+                if (!cache.value) {
+                    const value = Bridge.__internal.get(id, property);
+                    cache.value = value;
+
+                    value.catch(() => {
+                        // Don't cache errors.
+                        if (cache.value === value) {
+                            delete cache.value;
+                        }
+                    });
+                }
+
+                return cache.value;
+            },
+
             get(id, property) {
                 return Bridge.__internal.sendMessageToJava("GET", { id, property });
             },
@@ -130,19 +326,165 @@ if (!window.Bridge) {
 
             mutate(id, property, callback) {
                 const listenerType = `__internal:mut:${id}:${property}`;
-                const unregisterFunction = Bridge.on(listenerType, callback);
-                Bridge.__internal.get(id, property).then(callback); // Initial set.
-                return () => unregisterFunction;
+
+                // All subscribers of a property share the cached value.
+                let state = mutations[listenerType];
+                if (!state) {
+                    state = { id, property, version: -1, value: undefined, wanted: -1, resyncing: false, callbacks: {} };
+                    mutations[listenerType] = state;
+                    Bridge.on(listenerType, (message) => Bridge.__internal.applyMutation(state, message));
+                    Bridge.__internal.resync(state); // Initial set.
+                } else if (state.version >= 0) {
+                    callback(state.value); // Initial set.
+                }
+
+                const callbackId = randomId();
+                state.callbacks[callbackId] = callback;
+                return () => {
+                    delete state.callbacks[callbackId];
+                };
             },
 
-            invoke(id, func, arguments) {
-                return Bridge.__internal.sendMessageToJava("INVOKE", {
-                    id,
-                    function: func,
-                    arguments,
+            applyMutation(state, message) {
+                if ("value" in message) {
+                    if (message.v <= state.version) return; // Old.
+                    state.version = message.v;
+                    state.value = message.value;
+                } else if (state.version >= 0 && message.v === state.version + 1) {
+                    state.version = message.v;
+                    state.value = applyPatch(state.value, message.patch);
+                } else {
+                    // We missed something, get the full value again.
+                    state.wanted = Math.max(state.wanted, message.v);
+                    Bridge.__internal.resync(state);
+                    return;
+                }
+
+                Bridge.__internal.notifyMutation(state);
+            },
+
+            resync(state) {
+                if (state.resyncing) return;
+                state.resyncing = true;
+
+                Bridge.__internal
+                    .sendMessageToJava("RESYNC", { id: state.id, property: state.property })
+                    .then((result) => {
+                        state.resyncing = false;
+
+                        if (result.v > state.version) {
+                            state.version = result.v;
+                            state.value = result.value;
+                            Bridge.__internal.notifyMutation(state);
+                        }
+
+                        // A patch arrived whilst we were waiting and it's newer than what we got.
+                        if (state.wanted > state.version) {
+                            Bridge.__internal.resync(state);
+                        }
+                    })
+                    .catch((e) => {
+                        state.resyncing = false;
+                        console.error("[Webview-Bridge]", "Could not resync " + state.property + ":", e);
+                    });
+            },
+
+            notifyMutation(state) {
+                Object.values(state.callbacks).forEach((callback) => {
+                    try {
+                        callback(state.value);
+                    } catch (e) {
+                        console.error(
+                            "[Webview-Bridge]",
+                            "A listener produced an exception: "
+                        );
+                        console.error(e);
+                    }
                 });
             },
 
+            invoke(id, func, arguments, call) {
+                return Bridge.__internal
+                    .sendMessageToJava("INVOKE", {
+                        id,
+                        function: func,
+                        arguments,
+                        call,
+                    })
+                    .then((result) => {
+                        if (result && typeof result === "object" && "__bridgeStream" in result) {
+                            return Bridge.__internal.openStream(result.__bridgeStream);
+                        }
+                        return result;
+                    });
+            },
+
+            invokeCancellable(id, func, args, signal) {
+                if (signal.aborted) {
+                    return Promise.reject(signal.reason ?? new DOMException("Aborted", "AbortError"));
+                }
+
+                const call = ++callCounter;
+
+                return new Promise((resolve, reject) => {
+                    const onAbort = () => {
+                        reject(signal.reason ?? new DOMException("Aborted", "AbortError"));
+                        // Java interrupts the call (or cancels its future), the result is ignored.
+                        Bridge.__internal.sendMessageToJava("CANCEL", { call }).catch(() => {});
+                    };
+                    signal.addEventListener("abort", onAbort, { once: true });
+
+                    Bridge.__internal
+                        .invoke(id, func, args, call)
+                        .then(resolve, reject)
+                        .finally(() => signal.removeEventListener("abort", onAbort));
+                });
+            },
+
+            // Java returned a Stream/Iterator/Publisher, which we pull in chunks as the consumer asks for more.
+            openStream(streamId) {
+                let buffer = [];
+                let position = 0;
+                let done = false;
+
+                return {
+                    [Symbol.asyncIterator]() {
+                        return this;
+                    },
+
+                    async next() {
+                        while (position >= buffer.length) {
+                            if (done) {
+                                return { done: true, value: undefined };
+                            }
+
+                            try {
+                                const chunk = await Bridge.__internal.sendMessageToJava("STREAM_PULL", { stream: streamId });
+                                buffer = chunk.items;
+                                position = 0;
+                                done = chunk.done;
+                            } catch (e) {
+                                done = true; // Java closes it for us.
+                                buffer = [];
+                                throw e;
+                            }
+                        }
+
+                        return { done: false, value: buffer[position++] };
+                    },
+
+                    async return() {
+                        // Called when the consumer stops early (e.g break).
+                        if (!done) {
+                            done = true;
+                            buffer = [];
+                            Bridge.__internal.sendMessageToJava("STREAM_CLOSE", { stream: streamId });
+                        }
+                        return { done: true, value: undefined };
+                    },
+                };
+            },
+
             broadcast(type, data) {
                 // Broadcast under a wildcard.
                 const wildCardCallbacks = listeners["*"];
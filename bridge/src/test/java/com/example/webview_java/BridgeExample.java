@@ -6,6 +6,7 @@ import co.casterlabs.commons.async.AsyncTask;
 import dev.webview.webview_java.Webview;
 import dev.webview.webview_java.bridge.JavascriptFunction;
 import dev.webview.webview_java.bridge.JavascriptObject;
+import dev.webview.webview_java.bridge.JavascriptProperty;
 import dev.webview.webview_java.bridge.JavascriptValue;
 import dev.webview.webview_java.bridge.WebviewBridge;
 
@@ -53,13 +54,13 @@ public class BridgeExample {
 
         public final NestedTestObject nested = new NestedTestObject();
 
-        @JavascriptValue(allowSet = false, watchForMutate = true)
-        public long nanoTime = -1;
+        @JavascriptValue(allowSet = false)
+        public final JavascriptProperty<Long> nanoTime = new JavascriptProperty<>(-1L);
         {
             AsyncTask.create(() -> {
                 try {
                     while (true) {
-                        this.nanoTime = System.nanoTime();
+                        this.nanoTime.set(System.nanoTime());
                         Thread.sleep(100);
                     }
                 } catch (InterruptedException ignored) {}
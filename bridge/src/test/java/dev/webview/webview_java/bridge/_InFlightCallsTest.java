@@ -0,0 +1,110 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Test;
+
+class _InFlightCallsTest {
+    private final _InFlightCalls calls = new _InFlightCalls();
+
+    @Test
+    void cancelReachesARunningCall() {
+        _InFlightCall call = this.calls.arrive(1);
+        this.calls.cancel(1);
+
+        assertThrows(CancellationException.class, call::start);
+    }
+
+    @Test
+    void cancelBeforeInvokePreCancelsTheCall() {
+        this.calls.cancel(1);
+
+        assertThrows(CancellationException.class, this.calls.arrive(1)::start);
+    }
+
+    @Test
+    void outOfOrderCancelStillPreCancels() {
+        // INVOKE 2 overtakes INVOKE 1, and CANCEL 1 arrives in between.
+        _InFlightCall second = this.calls.arrive(2);
+        this.calls.cancel(1);
+
+        assertThrows(CancellationException.class, this.calls.arrive(1)::start);
+        second.start(); // Untouched.
+    }
+
+    @Test
+    void lateCancelLeavesNothingBehind() {
+        _InFlightCall call = this.calls.arrive(1);
+        this.calls.finish(1, call);
+
+        this.calls.cancel(1);
+
+        assertEquals(0, this.calls.running());
+        assertEquals(1, this.calls.remembered()); // Only the finished id.
+    }
+
+    @Test
+    void finishOnlyRemovesTheSameCall() {
+        _InFlightCall previousPage = this.calls.arrive(1);
+        this.calls.cancelAll();
+
+        // Ids restart on the next page.
+        _InFlightCall call = this.calls.arrive(1);
+        this.calls.finish(1, previousPage);
+        assertEquals(1, this.calls.running());
+
+        this.calls.cancel(1);
+        assertThrows(CancellationException.class, call::start);
+    }
+
+    @Test
+    void cancelAllCancelsAndForgetsEverything() {
+        _InFlightCall call = this.calls.arrive(1);
+        this.calls.finish(2, this.calls.arrive(2));
+        this.calls.cancel(3);
+
+        this.calls.cancelAll();
+
+        assertThrows(CancellationException.class, call::start);
+        assertEquals(0, this.calls.running());
+        assertEquals(0, this.calls.remembered());
+    }
+
+    @Test
+    void rememberedIdsAreBounded() {
+        for (int id = 0; id < _InFlightCalls.MAX_REMEMBERED * 3; id++) {
+            this.calls.finish(id, this.calls.arrive(id));
+            this.calls.cancel(-id - 1); // Never arrives.
+        }
+
+        assertEquals(0, this.calls.running());
+        assertEquals(_InFlightCalls.MAX_REMEMBERED * 2, this.calls.remembered());
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import co.casterlabs.rakurai.json.element.JsonArray;
+import co.casterlabs.rakurai.json.element.JsonObject;
+import co.casterlabs.rakurai.json.element.JsonString;
+
+class _JsonPatchTest {
+
+    @Test
+    void equalValuesHaveNoPatch() {
+        assertNull(_JsonPatch.diff(object("a", "1"), object("a", "1")));
+    }
+
+    @Test
+    void changedValueIsReplaced() {
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/a\",\"value\":\"2\"}]",
+            _JsonPatch.diff(object("a", "1"), object("a", "2"))
+        );
+    }
+
+    @Test
+    void slashesInKeysAreEscaped() {
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/a~1b\",\"value\":\"2\"}]",
+            _JsonPatch.diff(object("a/b", "1"), object("a/b", "2"))
+        );
+    }
+
+    @Test
+    void tildesInKeysAreEscaped() {
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/m~0n\",\"value\":\"2\"}]",
+            _JsonPatch.diff(object("m~n", "1"), object("m~n", "2"))
+        );
+    }
+
+    @Test
+    void tildesAreEscapedBeforeSlashes() {
+        // Otherwise the key's literal "~1" would be decoded back into a "/".
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/~01~1\",\"value\":\"2\"}]",
+            _JsonPatch.diff(object("~1/", "1"), object("~1/", "2"))
+        );
+    }
+
+    @Test
+    void nestedPathsEscapeEverySegment() {
+        JsonObject from = new JsonObject().put("x/y", object("z~", "1"));
+        JsonObject to = new JsonObject().put("x/y", object("z~", "2"));
+
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/x~1y/z~0\",\"value\":\"2\"}]",
+            _JsonPatch.diff(from, to)
+        );
+    }
+
+    @Test
+    void addedAndRemovedKeysAreEscaped() {
+        assertEquals(
+            "[{\"op\":\"remove\",\"path\":\"/old~1key\"},{\"op\":\"add\",\"path\":\"/new~0key\",\"value\":\"1\"}]",
+            _JsonPatch.diff(object("old/key", "1"), object("new~key", "1"))
+        );
+    }
+
+    @Test
+    void arraysArePatchedByIndex() {
+        JsonArray from = new JsonArray(new JsonString("a"), new JsonString("b"), new JsonString("c"));
+
+        assertEquals(
+            "[{\"op\":\"replace\",\"path\":\"/1\",\"value\":\"x\"},{\"op\":\"remove\",\"path\":\"/2\"}]",
+            _JsonPatch.diff(from, new JsonArray(new JsonString("a"), new JsonString("x")))
+        );
+        assertEquals(
+            "[{\"op\":\"add\",\"path\":\"/-\",\"value\":\"d\"}]",
+            _JsonPatch.diff(from, new JsonArray(new JsonString("a"), new JsonString("b"), new JsonString("c"), new JsonString("d")))
+        );
+    }
+
+    private static JsonObject object(String key, String value) {
+        return new JsonObject().put(key, value);
+    }
+
+}
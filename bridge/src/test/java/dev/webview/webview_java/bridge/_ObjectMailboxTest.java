@@ -0,0 +1,189 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import dev.webview.webview_java.bridge.JavascriptPriority.Level;
+
+class _ObjectMailboxTest {
+    /**
+     * Queued calls are started on the releasing thread, which keeps the order
+     * they run in deterministic.
+     */
+    private static final Executor DIRECT = Runnable::run;
+
+    private final _ObjectMailbox mailbox = new _ObjectMailbox();
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void uncontendedCallsRunOnTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+
+        CompletionStage<Thread> result = this.mailbox.submit(true, Level.NORMAL, () -> CompletableFuture.completedFuture(Thread.currentThread()), DIRECT);
+
+        assertSame(caller, result.toCompletableFuture().getNow(null));
+    }
+
+    @Test
+    void sharedCallsRunAlongsideEachOther() throws Exception {
+        Holder reader = this.hold(false, Level.NORMAL, "reader");
+
+        CompletableFuture<String> second = this.record(false, Level.NORMAL, "second reader");
+        assertTrue(second.isDone(), "a shared call shouldn't wait for another shared call");
+
+        reader.release();
+        assertEquals(Arrays.asList("second reader", "reader"), this.order);
+    }
+
+    @Test
+    void exclusiveCallsWaitForSharedOnes() throws Exception {
+        Holder reader = this.hold(false, Level.NORMAL, "reader");
+
+        CompletableFuture<String> writer = this.record(true, Level.NORMAL, "writer");
+        assertFalse(writer.isDone());
+
+        reader.release();
+        writer.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("reader", "writer"), this.order);
+    }
+
+    @Test
+    void sharedCallsQueueBehindAWaitingExclusiveOne() throws Exception {
+        Holder reader = this.hold(false, Level.NORMAL, "reader");
+
+        CompletableFuture<String> writer = this.record(true, Level.NORMAL, "writer");
+        CompletableFuture<String> lateReader = this.record(false, Level.NORMAL, "late reader");
+        assertFalse(lateReader.isDone(), "the waiting writer would be starved");
+
+        reader.release();
+        CompletableFuture.allOf(writer, lateReader).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("reader", "writer", "late reader"), this.order);
+    }
+
+    @Test
+    void waitingCallsStartByPriorityThenArrival() throws Exception {
+        Holder writer = this.hold(true, Level.NORMAL, "writer");
+
+        List<CompletableFuture<String>> queued = Arrays.asList(
+            this.record(true, Level.BULK, "bulk"),
+            this.record(true, Level.NORMAL, "normal 1"),
+            this.record(true, Level.INTERACTIVE, "interactive"),
+            this.record(true, Level.NORMAL, "normal 2")
+        );
+
+        writer.release();
+        CompletableFuture.allOf(queued.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("writer", "interactive", "normal 1", "normal 2", "bulk"), this.order);
+    }
+
+    @Test
+    void failingCallsReleaseTheMailbox() throws Exception {
+        CompletionStage<Object> failed = this.mailbox.submit(true, Level.NORMAL, () -> {
+            throw new IllegalStateException("Test");
+        }, DIRECT);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.toCompletableFuture().get());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        assertTrue(this.record(true, Level.NORMAL, "next").isDone());
+    }
+
+    @Test
+    void rejectedCallsFailWithoutBlockingTheRest() throws Exception {
+        Executor rejecting = (r) -> {
+            throw new RejectedExecutionException();
+        };
+        Holder writer = this.hold(true, Level.NORMAL, "writer");
+
+        CompletableFuture<String> rejected = this.mailbox.submit(true, Level.NORMAL, () -> CompletableFuture.completedFuture("rejected"), rejecting).toCompletableFuture();
+        CompletableFuture<String> next = this.record(true, Level.NORMAL, "next");
+
+        writer.release();
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(Arrays.asList("writer", "next"), this.order);
+    }
+
+    private CompletableFuture<String> record(boolean exclusive, Level priority, String name) {
+        return this.mailbox.submit(exclusive, priority, () -> {
+            this.order.add(name);
+            return CompletableFuture.completedFuture(name);
+        }, DIRECT).toCompletableFuture();
+    }
+
+    /**
+     * Starts a call on another thread which holds the mailbox until released.
+     */
+    private Holder hold(boolean exclusive, Level priority, String name) throws InterruptedException {
+        Holder holder = new Holder();
+
+        holder.thread = new Thread(() -> {
+            this.mailbox.submit(exclusive, priority, () -> {
+                holder.entered.countDown();
+                holder.finish.await();
+                this.order.add(name);
+                return CompletableFuture.completedFuture(name);
+            }, DIRECT);
+        });
+        holder.thread.start();
+
+        assertTrue(holder.entered.await(5, TimeUnit.SECONDS));
+        return holder;
+    }
+
+    private static class Holder {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch finish = new CountDownLatch(1);
+        private Thread thread;
+
+        /**
+         * Lets the call finish, the calls queued behind it are run before this
+         * returns.
+         */
+        void release() throws InterruptedException {
+            this.finish.countDown();
+            this.thread.join(5000);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class _ObjectRegistryTest {
+    private final List<int[]> released = new ArrayList<>();
+    private final _ObjectRegistry registry = new _ObjectRegistry(this.released::add);
+    private final List<WeakReference<TestObject>> watched = new ArrayList<>();
+
+    @Test
+    void registeredObjectsCanBeLookedUp() {
+        TestObject first = new TestObject();
+        TestObject second = new TestObject();
+
+        int firstHandle = this.registry.register(first);
+        int secondHandle = this.registry.register(second);
+
+        assertNotEquals(firstHandle, secondHandle);
+        assertSame(first, this.registry.get(firstHandle));
+        assertSame(second, this.registry.get(secondHandle));
+        assertEquals(2, this.registry.size());
+    }
+
+    @Test
+    void releaseDropsTheHandleAndNotifies() {
+        TestObject object = new TestObject();
+        int handle = this.registry.register(object);
+
+        this.registry.release(handle);
+
+        assertNull(this.registry.get(handle));
+        assertEquals(0, this.registry.size());
+        assertEquals(1, this.released.size());
+        assertArrayEquals(new int[] {
+                handle
+        }, this.released.get(0));
+    }
+
+    @Test
+    void releaseOnlyNotifiesOnce() {
+        int handle = this.registry.register(new TestObject());
+
+        this.registry.release(handle);
+        this.registry.release(handle);
+        this.registry.release(handle + 1000); // Never registered.
+
+        assertEquals(1, this.released.size());
+    }
+
+    @Test
+    void releasedHandlesAreNotReused() {
+        int handle = this.registry.register(new TestObject());
+        this.registry.release(handle);
+
+        assertNotEquals(handle, this.registry.register(new TestObject()));
+    }
+
+    @Test
+    void collectedObjectsAreReleased() throws InterruptedException {
+        TestObject kept = new TestObject();
+        int keptHandle = this.registry.register(kept);
+
+        ReferenceQueue<TestObject> collectedQueue = new ReferenceQueue<>();
+        int collectedHandle = this.registerUnreachable(collectedQueue);
+
+        // Wait for our own reference to be enqueued, that way we know the object
+        // really was collected rather than guessing with sleeps.
+        boolean wasCollected = false;
+        for (int attempt = 0; (attempt < 50) && !wasCollected; attempt++) {
+            System.gc();
+            wasCollected = collectedQueue.remove(100) != null;
+        }
+        assumeTrue(wasCollected, "the GC didn't collect the object, nothing to check");
+
+        // The registry's own reference is cleared at the same time, but may be
+        // enqueued slightly later.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((this.registry.size() > 1) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, this.released.size(), "the unreachable object should've been released");
+        assertArrayEquals(new int[] {
+                collectedHandle
+        }, this.released.get(0));
+        assertNull(this.registry.get(collectedHandle));
+        assertSame(kept, this.registry.get(keptHandle));
+        assertEquals(1, this.registry.size());
+    }
+
+    private int registerUnreachable(ReferenceQueue<TestObject> queue) {
+        TestObject object = new TestObject();
+        this.watched.add(new WeakReference<>(object, queue));
+        return this.registry.register(object);
+    }
+
+    private static class TestObject extends JavascriptObject {
+    }
+
+}
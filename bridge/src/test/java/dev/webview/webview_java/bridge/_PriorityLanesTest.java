@@ -0,0 +1,196 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.webview.webview_java.bridge.JavascriptPriority.Level;
+
+class _PriorityLanesTest {
+    private final ExecutorService bindExecutor = Executors.newCachedThreadPool();
+    private final _PriorityLanes lanes = new _PriorityLanes(() -> this.bindExecutor);
+
+    @AfterEach
+    void shutdown() {
+        this.bindExecutor.shutdownNow();
+    }
+
+    @Test
+    void normalRunsInline() {
+        assertSame(Thread.currentThread(), this.runOn(Level.NORMAL));
+        assertEquals(1, this.lanes.getMetrics(Level.NORMAL).getCallsStarted());
+    }
+
+    @Test
+    void interactiveRunsOnItsOwnThreads() {
+        Thread thread = this.runOn(Level.INTERACTIVE);
+
+        assertNotSame(Thread.currentThread(), thread);
+        assertTrue(thread.getName().startsWith("Webview Bridge Interactive Thread"));
+        assertEquals(Thread.MAX_PRIORITY, thread.getPriority());
+        assertEquals(1, this.lanes.getMetrics(Level.INTERACTIVE).getCallsStarted());
+    }
+
+    @Test
+    void bulkRunsOnItsOwnThreads() {
+        Thread thread = this.runOn(Level.BULK);
+
+        assertNotSame(Thread.currentThread(), thread);
+        assertTrue(thread.getName().startsWith("Webview Bridge Bulk Thread"));
+        assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+    }
+
+    @Test
+    void interactiveDoesNotWaitBehindBulk() throws Exception {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> bulk = new ArrayList<>();
+        for (int i = 0; i < threads * 2; i++) {
+            bulk.add(
+                this.lanes.submit(Level.BULK, (work) -> work.call(), () -> {
+                    blocked.await();
+                    return CompletableFuture.completedFuture(1);
+                }).toCompletableFuture()
+            );
+        }
+
+        try {
+            Thread interactive = this.lanes
+                .submit(Level.INTERACTIVE, (work) -> work.call(), () -> CompletableFuture.completedFuture(Thread.currentThread()))
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+            assertTrue(interactive.getName().startsWith("Webview Bridge Interactive Thread"));
+            assertEquals(threads * 2, this.lanes.getMetrics(Level.BULK).getCallsQueued());
+        } finally {
+            blocked.countDown();
+        }
+
+        CompletableFuture.allOf(bulk.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void bulkQueueIsBounded() throws InterruptedException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int overflow = 10;
+        CountDownLatch blocked = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < threads + _PriorityLanes.BULK_QUEUE_CAPACITY + overflow; i++) {
+            results.add(
+                this.lanes.submit(Level.BULK, (work) -> work.call(), () -> {
+                    blocked.await();
+                    return CompletableFuture.completedFuture(1);
+                }).toCompletableFuture()
+            );
+        }
+        blocked.countDown();
+
+        int rejected = 0;
+        for (CompletableFuture<Integer> result : results) {
+            try {
+                result.join();
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+                rejected++;
+            }
+        }
+
+        BridgeLaneMetrics metrics = this.lanes.getMetrics(Level.BULK);
+        assertEquals(overflow, rejected);
+        assertEquals(overflow, metrics.getCallsRejected());
+        assertEquals(results.size() - overflow, metrics.getCallsStarted());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    @Test
+    void mailboxWaitIsCountedAsLaneWait() throws Exception {
+        _ObjectMailbox mailbox = new _ObjectMailbox();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        this.bindExecutor.execute(() -> mailbox.submit(true, Level.NORMAL, () -> {
+            entered.countDown();
+            finish.await();
+            return CompletableFuture.completedFuture(0);
+        }, this.bindExecutor));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        long waitMillis = 50;
+        CompletableFuture<Integer> waiting = this.lanes
+            .submit(Level.NORMAL, (work) -> mailbox.submit(true, Level.NORMAL, work, this.bindExecutor), () -> CompletableFuture.completedFuture(1))
+            .toCompletableFuture();
+
+        BridgeLaneMetrics metrics = this.lanes.getMetrics(Level.NORMAL);
+        assertEquals(1, metrics.getQueueDepth());
+
+        Thread.sleep(waitMillis);
+        finish.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1, metrics.getCallsStarted());
+        assertTrue(metrics.getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(waitMillis), metrics.toString());
+    }
+
+    @Test
+    void callsThatNeverStartAreCountedAsRejected() {
+        CompletableFuture<Object> result = this.lanes
+            .submit(Level.NORMAL, (work) -> {
+                throw new RejectedExecutionException();
+            }, () -> CompletableFuture.completedFuture(null))
+            .toCompletableFuture();
+
+        assertTrue(result.isCompletedExceptionally());
+
+        BridgeLaneMetrics metrics = this.lanes.getMetrics(Level.NORMAL);
+        assertEquals(1, metrics.getCallsRejected());
+        assertEquals(0, metrics.getCallsStarted());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    private Thread runOn(Level level) {
+        return this.lanes
+            .submit(level, (work) -> work.call(), () -> CompletableFuture.completedFuture(Thread.currentThread()))
+            .toCompletableFuture()
+            .join();
+    }
+
+}
@@ -0,0 +1,349 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * An in-process {@link WebviewNative} that needs no display or native library.
+ * Dispatches and bind calls run on the thread that calls
+ * {@link Webview#run()}, just like the real thing, and evals are handed to an
+ * {@link EvalHandler} instead of a JavaScript engine.
+ * 
+ * Select it with {@code -Dwebview.native.backend=headless}, then use
+ * {@link #get()} and {@link #getWindow(Webview)} to drive it, e.g.:
+ * 
+ * <pre>
+ * <code>
+ *   Webview wv = new Webview(false);
+ *   wv.bind("echo", (req) -> req);
+ *   wv.runAsync();
+ *
+ *   HeadlessWebviewNative.Window window = HeadlessWebviewNative.get().getWindow(wv);
+ *   window.call("echo", "[1,2,3]").get(); // "[1,2,3]"
+ * </code>
+ * </pre>
+ */
+public class HeadlessWebviewNative implements WebviewNative {
+    private final AtomicLong pointerCounter = new AtomicLong();
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Called on the event loop for every {@code webview_eval}. Defaults to doing
+     * nothing.
+     */
+    private volatile @Setter @NonNull EvalHandler evalHandler = (window, script) -> {};
+
+    /**
+     * @return                       the active headless backend.
+     * 
+     * @throws IllegalStateException if a different backend was selected.
+     */
+    public static HeadlessWebviewNative get() {
+        if (N instanceof HeadlessWebviewNative) {
+            return (HeadlessWebviewNative) N;
+        }
+        throw new IllegalStateException("The headless backend is not active, run with -Dwebview.native.backend=headless");
+    }
+
+    @SuppressWarnings("deprecation")
+    public Window getWindow(@NonNull Webview webview) {
+        return this.getWindow(webview.$pointer);
+    }
+
+    public Window getWindow(long $pointer) {
+        Window window = this.windows.get($pointer);
+        if (window == null) {
+            throw new IllegalArgumentException("Unknown webview: " + $pointer);
+        }
+        return window;
+    }
+
+    @Override
+    public long webview_create(boolean debug, PointerByReference windowPointer) {
+        long $pointer = this.pointerCounter.incrementAndGet();
+        this.windows.put($pointer, new Window($pointer, debug));
+        return $pointer;
+    }
+
+    @Override
+    public long webview_get_window(long $pointer) {
+        return 0;
+    }
+
+    @Override
+    public void webview_set_html(long $pointer, String html) {
+        this.getWindow($pointer).html = html;
+    }
+
+    @Override
+    public void webview_navigate(long $pointer, String url) {
+        this.getWindow($pointer).url = url;
+    }
+
+    @Override
+    public void webview_set_title(long $pointer, String title) {
+        this.getWindow($pointer).title = title;
+    }
+
+    @Override
+    public void webview_set_size(long $pointer, int width, int height, int hint) {
+        Window window = this.getWindow($pointer);
+        window.width = width;
+        window.height = height;
+    }
+
+    @Override
+    public void webview_run(long $pointer) {
+        this.getWindow($pointer).runLoop();
+    }
+
+    @Override
+    public void webview_destroy(long $pointer) {
+        Window window = this.windows.remove($pointer);
+        if (window != null) {
+            window.destroy();
+        }
+    }
+
+    @Override
+    public void webview_terminate(long $pointer) {
+        this.getWindow($pointer).terminate();
+    }
+
+    @Override
+    public void webview_eval(long $pointer, @NonNull String js) {
+        Window window = this.getWindow($pointer);
+        window.evals.increment();
+
+        try {
+            this.evalHandler.onEval(window, js);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    @Override
+    public void webview_init(long $pointer, @NonNull String js) {
+        this.getWindow($pointer).initScripts.add(js);
+    }
+
+    @Override
+    public void webview_bind(long $pointer, @NonNull String name, @NonNull BindCallback callback, long arg) {
+        this.getWindow($pointer).bindings.put(name, callback);
+    }
+
+    @Override
+    public void webview_unbind(long $pointer, @NonNull String name) {
+        this.getWindow($pointer).bindings.remove(name);
+    }
+
+    @Override
+    public void webview_return(long $pointer, long seq, boolean isError, String result) {
+        this.getWindow($pointer).complete(seq, isError, result);
+    }
+
+    @Override
+    public void webview_return(long $pointer, long seq, boolean isError, Pointer result) {
+        this.getWindow($pointer).complete(seq, isError, result.getString(0, StandardCharsets.UTF_8.name()));
+    }
+
+    @Override
+    public void webview_dispatch(long $pointer, @NonNull DispatchCallback callback, long arg) {
+        this.getWindow($pointer).post(() -> callback.callback($pointer, arg));
+    }
+
+    @Override
+    public VersionInfoStruct webview_version() {
+        VersionInfoStruct version = new VersionInfoStruct();
+        byte[] name = "headless".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(name, 0, version.version_number, 0, name.length);
+        return version;
+    }
+
+    @FunctionalInterface
+    public static interface EvalHandler {
+
+        /**
+         * @param window the window the script was evaluated in, use
+         *               {@link Window#call(String, String)} to answer it.
+         * @param script the script, exactly as it would've been sent to the
+         *               browser.
+         */
+        void onEval(Window window, String script) throws Throwable;
+
+    }
+
+    public static class Window {
+        private final LinkedBlockingQueue<Runnable> loop = new LinkedBlockingQueue<>();
+        private final Map<String, BindCallback> bindings = new ConcurrentHashMap<>();
+        private final Map<Long, CompletableFuture<String>> pendingCalls = new ConcurrentHashMap<>();
+        private final AtomicLong seqCounter = new AtomicLong();
+        private final List<String> initScripts = new CopyOnWriteArrayList<>();
+        private final LongAdder evals = new LongAdder();
+
+        private volatile boolean terminated = false;
+
+        private final @Getter long pointer;
+        private final @Getter boolean debug;
+
+        private volatile @Getter String html;
+        private volatile @Getter String url;
+        private volatile @Getter String title;
+        private volatile @Getter int width;
+        private volatile @Getter int height;
+
+        private Window(long pointer, boolean debug) {
+            this.pointer = pointer;
+            this.debug = debug;
+        }
+
+        /**
+         * Simulates the page calling {@code window[name](...args)}. The binding is
+         * invoked on the event loop, so this only completes while the webview is
+         * running.
+         * 
+         * @param  name     The name of the binding.
+         * @param  argsJson The arguments, as a json array.
+         * 
+         * @return          the json result passed to {@code webview_return}. If the
+         *                  binding returned an error then the future is completed
+         *                  exceptionally with an {@link IllegalStateException}.
+         */
+        public CompletableFuture<String> call(@NonNull String name, @NonNull String argsJson) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            long seq = this.seqCounter.incrementAndGet();
+
+            this.post(() -> {
+                BindCallback callback = this.bindings.get(name);
+                if (callback == null) {
+                    future.completeExceptionally(new IllegalStateException(name + " is not bound."));
+                    return;
+                }
+
+                this.pendingCalls.put(seq, future);
+                callback.callback(seq, argsJson, 0);
+            });
+
+            return future;
+        }
+
+        /**
+         * @return whether or not {@code name} is currently bound.
+         */
+        public boolean isBound(@NonNull String name) {
+            return this.bindings.containsKey(name);
+        }
+
+        /**
+         * @return every script passed to {@code webview_init}, in order.
+         */
+        public List<String> getInitScripts() {
+            return Collections.unmodifiableList(this.initScripts);
+        }
+
+        /**
+         * @return how many scripts have been passed to {@code webview_eval}.
+         */
+        public long getEvalCount() {
+            return this.evals.sum();
+        }
+
+        private void post(Runnable task) {
+            this.loop.add(task);
+        }
+
+        private void runLoop() {
+            while (!this.terminated) {
+                try {
+                    this.loop.take().run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+        }
+
+        private void terminate() {
+            this.terminated = true;
+            this.post(() -> {}); // Wake up the loop.
+        }
+
+        private void complete(long seq, boolean isError, String result) {
+            CompletableFuture<String> future = this.pendingCalls.remove(seq);
+            if (future == null) {
+                return;
+            }
+
+            if (isError) {
+                future.completeExceptionally(new IllegalStateException(result));
+            } else {
+                future.complete(result);
+            }
+        }
+
+        private void destroy() {
+            this.terminated = true;
+            this.loop.clear();
+
+            IllegalStateException destroyed = new IllegalStateException("The webview was destroyed.");
+            this.pendingCalls.values().forEach((f) -> f.completeExceptionally(destroyed));
+            this.pendingCalls.clear();
+        }
+
+    }
+
+    public static class Provider implements WebviewNativeProvider {
+
+        @Override
+        public String getName() {
+            return "headless";
+        }
+
+        @Override
+        public WebviewNative load() {
+            return new HeadlessWebviewNative();
+        }
+
+    }
+
+}
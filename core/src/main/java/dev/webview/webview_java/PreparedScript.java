@@ -0,0 +1,78 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A JavaScript function that has been installed into the page once, and can
+ * then be invoked over and over again with only a tiny call expression (rather
+ * than re-sending, re-escaping and re-parsing the whole function every time).
+ * 
+ * @see Webview#prepareScript(String, String)
+ */
+public class PreparedScript {
+    static final String REGISTRY = "window.__webviewPrepared";
+
+    private final Webview webview;
+    private final @Getter String name;
+
+    private final String callPrefix;
+
+    PreparedScript(@NonNull Webview webview, @NonNull String name) {
+        this.webview = webview;
+        this.name = name;
+        this.callPrefix = REGISTRY + "[\"" + _JsonEncoder.encode(name, _JsonEncoder.JSON) + "\"](";
+    }
+
+    /**
+     * Invokes the function.
+     * 
+     * @param jsonArgs The arguments to pass, each of which must be a valid JSON
+     *                 value (e.g {@code "123"}, {@code "\"abc\""} or
+     *                 {@code jsonElement.toString()}).
+     */
+    public void invoke(@NonNull String... jsonArgs) {
+        int length = this.callPrefix.length() + 2;
+        for (String arg : jsonArgs) {
+            length += arg.length() + 1;
+        }
+
+        StringBuilder call = new StringBuilder(length);
+        call.append(this.callPrefix);
+
+        for (int i = 0; i < jsonArgs.length; i++) {
+            if (i > 0) {
+                call.append(',');
+            }
+            call.append(jsonArgs[i]);
+        }
+
+        call.append(");");
+
+        this.webview.eval(call.toString());
+    }
+
+}
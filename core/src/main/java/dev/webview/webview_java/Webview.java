@@ -31,21 +31,107 @@ import static dev.webview.webview_java.WebviewNative.WV_HINT_NONE;
 
 import java.awt.Component;
 import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
 
+import com.sun.jna.Memory;
 import com.sun.jna.Native;
 import com.sun.jna.ptr.PointerByReference;
 
 import co.casterlabs.commons.platform.Platform;
 import dev.webview.webview_java.WebviewNative.BindCallback;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
 public class Webview implements Closeable, Runnable {
+    private static final String EVAL_ERROR_BINDING = "__webviewEvalError";
+    private static final String EVAL_RESULT_BINDING = "__webviewEvalResult";
 
     @Deprecated
     public long $pointer;
 
+    /**
+     * Counters for the dispatch queue, useful for diagnosing a busy UI thread.
+     */
+    private final @Getter WebviewMetrics metrics = new WebviewMetrics(() -> this.dispatchQueue.depth());
+
+    private final _DispatchQueue dispatchQueue = new _DispatchQueue(
+        (callback) -> N.webview_dispatch(this.$pointer, callback, 0),
+        this.metrics
+    );
+
+    /**
+     * The executor used to run handlers that were bound with {@code async} set to
+     * true. Defaults to virtual threads on JDK 21+, and a pool of daemon threads
+     * otherwise.
+     * 
+     * @see #bind(String, WebviewBindCallback, boolean)
+     */
+    private @Getter @Setter @NonNull Executor bindExecutor = _WebviewUtil.DEFAULT_BIND_EXECUTOR;
+
+    /**
+     * Whether or not to coalesce the scripts passed to {@link #eval(String)}
+     * during a single dispatch tick into one script, which saves the engine from
+     * compiling each one separately. Every script still gets its own try/catch,
+     * but note that a syntax error in one script will prevent the whole batch
+     * from compiling. Defaults to false.
+     * 
+     * @see #setMaxEvalBatchSize(int)
+     * @see WebviewMetrics#getEvalBatches()
+     */
+    private @Getter @Setter boolean evalBatching = false;
+
+    private final _EvalBatcher evalBatcher = new _EvalBatcher(
+        this::dispatch,
+        (batch) -> N.webview_eval(this.$pointer, batch),
+        this.metrics
+    );
+
+    /**
+     * @see #setLeanEval(boolean)
+     */
+    private @Getter boolean leanEval = false;
+    private boolean leanEvalBound = false;
+    private final _ScriptRegistry scriptRegistry = new _ScriptRegistry();
+
+    /**
+     * Called on the UI thread whenever a script evaluated in lean mode throws.
+     * The error is always counted in {@link WebviewMetrics#getEvalErrors()} and
+     * logged to the page's console, this is for when you want the source too.
+     * 
+     * @see #setLeanEval(boolean)
+     */
+    private @Getter @Setter @Nullable Consumer<WebviewEvalException> evalErrorHandler;
+
+    /**
+     * @see #evalAsync(String, long, TimeUnit)
+     */
+    private final Map<Long, CompletableFuture<String>> pendingEvals = new ConcurrentHashMap<>();
+    private final AtomicLong evalIdCounter = new AtomicLong();
+    private boolean evalResultBound = false;
+
+    /**
+     * How strings are encoded when they cross the native boundary. Defaults to
+     * {@link WireEncoding#ASCII}, {@link WireEncoding#UTF8} is much more compact
+     * for non-latin UIs.
+     */
+    private @Getter @Setter @NonNull WireEncoding wireEncoding = WireEncoding.ASCII;
+
+    // JNA only holds weak references to callbacks, so we need to keep them alive
+    // for as long as they're bound.
+    private final Map<String, BindCallback> bindings = new ConcurrentHashMap<>();
+
     /**
      * Creates a new Webview. <br/>
      * The default size will be set, and if the size is set again before loading the
@@ -206,6 +292,17 @@ public class Webview implements Closeable, Runnable {
      *                             iframes.
      */
     public void setInitScript(@NonNull String script, boolean allowNestedAccess) {
+        String errorHandler;
+        if (this.leanEval) {
+            long id = this.scriptRegistry.registerInit(script);
+            errorHandler = leanErrorHandler("init script", id);
+        } else {
+            errorHandler = String.format(
+                "console.error('[Webview]', 'An error occurred whilst evaluating init script:', %s, e);\n",
+                '"' + _JsonEncoder.encode(script, this.wireEncoding.json) + '"'
+            );
+        }
+
         script = String.format(
             "(() => {\n"
                 + "try {\n"
@@ -213,12 +310,12 @@ public class Webview implements Closeable, Runnable {
                 + "%s\n"
                 + "}\n"
                 + "} catch (e) {\n"
-                + "console.error('[Webview]', 'An error occurred whilst evaluating init script:', %s, e);\n"
+                + "%s"
                 + "}\n"
                 + "})();",
             allowNestedAccess,
             script,
-            '"' + _WebviewUtil.jsonEscape(script) + '"'
+            errorHandler
         );
 
         N.webview_init($pointer, script);
@@ -228,22 +325,211 @@ public class Webview implements Closeable, Runnable {
      * Executes the given script NOW.
      * 
      * @param script
+     * 
+     * @see          #setEvalBatching(boolean)
      */
     public void eval(@NonNull String script) {
-        this.dispatch(() -> {
-            N.webview_eval(
-                $pointer,
-                String.format(
-                    "try {\n"
-                        + "%s\n"
-                        + "} catch (e) {\n"
-                        + "console.error('[Webview]', 'An error occurred whilst evaluating script:', %s, e);\n"
-                        + "}",
-                    script,
-                    '"' + _WebviewUtil.jsonEscape(script) + '"'
-                )
+        String errorHandler;
+        if (this.leanEval) {
+            long id = this.scriptRegistry.registerEval(script);
+            errorHandler = leanErrorHandler("script", id);
+        } else {
+            errorHandler = String.format(
+                "console.error('[Webview]', 'An error occurred whilst evaluating script:', %s, e);\n",
+                '"' + _JsonEncoder.encode(script, this.wireEncoding.json) + '"'
             );
-        });
+        }
+
+        String wrapped = String.format(
+            "try {\n"
+                + "%s\n"
+                + "} catch (e) {\n"
+                + "%s"
+                + "}",
+            script,
+            errorHandler
+        );
+
+        if (this.evalBatching) {
+            this.evalBatcher.enqueue(wrapped);
+        } else {
+            this.dispatch(() -> N.webview_eval($pointer, wrapped));
+        }
+    }
+
+    private static String leanErrorHandler(String kind, long id) {
+        return String.format(
+            "console.error('[Webview]', 'An error occurred whilst evaluating %s #%d:', e);\n"
+                + "window.%s && window.%s(%d, String((e && e.stack) || e));\n",
+            kind, id,
+            EVAL_ERROR_BINDING, EVAL_ERROR_BINDING, id
+        );
+    }
+
+    /**
+     * Whether or not to report script errors by id, instead of embedding an
+     * escaped copy of the script in every eval. This roughly halves the size of
+     * each eval and the work JavaScript has to do to parse it. When an error is
+     * reported the id is mapped back to the script's source and handed to the
+     * {@link #setEvalErrorHandler(Consumer) eval error handler}.
+     * 
+     * @implNote Only the 1024 most recent eval'd scripts are remembered, init
+     *           scripts are always remembered.
+     * 
+     * @see      #eval(String)
+     * @see      #setInitScript(String, boolean)
+     */
+    public void setLeanEval(boolean leanEval) {
+        if (leanEval && !this.leanEvalBound) {
+            this.leanEvalBound = true;
+            this.bind(EVAL_ERROR_BINDING, this::onLeanEvalError);
+        }
+
+        this.leanEval = leanEval;
+    }
+
+    private String onLeanEvalError(String jsonArgs) {
+        // [id, "message"]
+        int comma = jsonArgs.indexOf(',');
+        long id = Long.parseLong(jsonArgs.substring(1, comma).trim());
+        String message = _WebviewUtil.unquoteJsonString(jsonArgs.substring(comma + 1, jsonArgs.lastIndexOf(']')));
+
+        this.metrics.recordEvalError();
+
+        Consumer<WebviewEvalException> handler = this.evalErrorHandler;
+        if (handler != null) {
+            handler.accept(new WebviewEvalException(id, message, this.scriptRegistry.lookup(id)));
+        }
+        return null;
+    }
+
+    /**
+     * Installs a function into the page (now, and on every future page load) so
+     * that it can be invoked by name with just its arguments. Use this for
+     * templates that get sent over and over again with different data.
+     * 
+     * <pre>
+     * <code>
+     *   PreparedScript setRow = wv.prepareScript("setRow", "(index, row) => { table.rows[index] = row; }");
+     *   setRow.invoke("5", "{\"name\":\"abc\"}");
+     * </code>
+     * </pre>
+     * 
+     * @param  name           A unique name for the function, preparing another
+     *                        function with the same name replaces it.
+     * @param  functionSource A JavaScript function expression, e.g
+     *                        {@code (a, b) => a + b} or
+     *                        {@code function (a, b) { ... }}.
+     * 
+     * @return                a handle to invoke the function with.
+     */
+    public PreparedScript prepareScript(@NonNull String name, @NonNull String functionSource) {
+        String install = String.format(
+            "%s = %s || {};\n"
+                + "%s[%s] = (%s\n);",
+            PreparedScript.REGISTRY, PreparedScript.REGISTRY,
+            PreparedScript.REGISTRY, '"' + _JsonEncoder.encode(name, _JsonEncoder.JSON) + '"', functionSource
+        );
+
+        this.setInitScript(install);
+        this.eval(install);
+
+        return new PreparedScript(this, name);
+    }
+
+    /**
+     * Evaluates the given expression and returns its result, times out after 30
+     * seconds.
+     * 
+     * @see #evalAsync(String, long, TimeUnit)
+     */
+    public CompletableFuture<String> evalAsync(@NonNull String expression) {
+        return this.evalAsync(expression, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Evaluates the given expression and returns its result. If the expression
+     * returns a Promise then it is awaited. To run statements, wrap them in a
+     * function, e.g {@code (() => { ...; return value; })()}.
+     * 
+     * @implNote        All evaluations share a single internal binding, so
+     *                  thousands of them can be outstanding at once. The future
+     *                  is completed off of the UI thread, on the bind executor.
+     * 
+     * @param    timeout How long to wait for the result before completing the
+     *                   future with a {@link java.util.concurrent.TimeoutException}.
+     * 
+     * @return           a future containing the result as JSON (undefined becomes
+     *                   {@code null}). Cancelling the future stops waiting for the
+     *                   result, and errors thrown by the expression complete it
+     *                   exceptionally.
+     * 
+     * @see              #setBindExecutor(Executor)
+     */
+    public CompletableFuture<String> evalAsync(@NonNull String expression, long timeout, @NonNull TimeUnit unit) {
+        synchronized (this.pendingEvals) {
+            if (!this.evalResultBound) {
+                this.evalResultBound = true;
+                this.bind(EVAL_RESULT_BINDING, this::onEvalResult, true);
+            }
+        }
+
+        long id = this.evalIdCounter.incrementAndGet();
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        this.pendingEvals.put(id, future);
+        future.whenComplete((result, t) -> this.pendingEvals.remove(id));
+        future.orTimeout(timeout, unit);
+
+        this.eval(
+            String.format(
+                "Promise.resolve()\n"
+                    + ".then(() => (\n%s\n))\n"
+                    + ".then((v) => window.%s(%d, false, (v === undefined) ? null : v))\n"
+                    + ".catch((e) => window.%s(%d, true, String((e && e.stack) || e)));",
+                expression,
+                EVAL_RESULT_BINDING, id,
+                EVAL_RESULT_BINDING, id
+            )
+        );
+
+        return future;
+    }
+
+    private String onEvalResult(String jsonArgs) {
+        // [id, isError, value]
+        int idEnd = jsonArgs.indexOf(',');
+        int isErrorEnd = jsonArgs.indexOf(',', idEnd + 1);
+
+        long id = Long.parseLong(jsonArgs.substring(1, idEnd).trim());
+        boolean isError = Boolean.parseBoolean(jsonArgs.substring(idEnd + 1, isErrorEnd).trim());
+        String value = jsonArgs.substring(isErrorEnd + 1, jsonArgs.lastIndexOf(']')).trim();
+
+        CompletableFuture<String> future = this.pendingEvals.remove(id);
+        if (future != null) {
+            if (isError) {
+                future.completeExceptionally(new IllegalStateException(_WebviewUtil.unquoteJsonString(value)));
+            } else {
+                future.complete(value);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Sets the maximum size of a single eval batch, in chars. A batch that reaches
+     * this size is closed off and the remaining scripts go into the next batch,
+     * which gets its own dispatched flush. Defaults to 1MiB.
+     * 
+     * @see #setEvalBatching(boolean)
+     */
+    public void setMaxEvalBatchSize(int maxEvalBatchSize) {
+        if (maxEvalBatchSize <= 0) {
+            throw new IllegalArgumentException("maxEvalBatchSize must be positive.");
+        }
+
+        this.evalBatcher.maxBatchSize = maxEvalBatchSize;
     }
 
     /**
@@ -264,27 +550,159 @@ public class Webview implements Closeable, Runnable {
      *                   automatically passed back to JavaScript.
      */
     public void bind(@NonNull String name, @NonNull WebviewBindCallback handler) {
-        N.webview_bind($pointer, name, new BindCallback() {
+        this.bind(name, handler, false);
+    }
+
+    /**
+     * Binds a function to the JavaScript environment on page load.
+     * 
+     * @implNote         This get's called AFTER window.load.
+     * 
+     * @implSpec         After calling the function in JavaScript you will get a
+     *                   Promise instead of the value. This is to prevent you from
+     *                   locking up the browser while waiting on your Java code to
+     *                   execute and generate a return value.
+     * 
+     * @param    name    The name to be used for the function, e.g "foo" to get
+     *                   foo().
+     * @param    handler The callback handler, accepts a JsonArray (which are all
+     *                   arguments passed to the function()) and returns a value
+     *                   which is of type JsonElement (can be null). Exceptions are
+     *                   automatically passed back to JavaScript.
+     * @param    async   Whether or not to run the handler off of the UI thread. If
+     *                   true, the handler is executed on the bind executor and the
+     *                   result is dispatched back to the UI thread, allowing many
+     *                   calls to be in flight at once without blocking the event
+     *                   loop. Your handler must be thread safe.
+     * 
+     * @see              #setBindExecutor(Executor)
+     */
+    public void bind(@NonNull String name, @NonNull WebviewBindCallback handler, boolean async) {
+        BindCallback callback = new BindCallback() {
             @Override
             public void callback(long seq, String req, long arg) {
-                try {
-                    req = _WebviewUtil.forceSafeChars(req);
+                if (!async) {
+                    handleBindRequest(seq, req, handler, false);
+                    return;
+                }
 
-                    String result = handler.apply(req);
-                    if (result == null) {
-                        result = "null";
-                    }
+                try {
+                    bindExecutor.execute(() -> handleBindRequest(seq, req, handler, true));
+                } catch (RejectedExecutionException e) {
+                    returnBindError(seq, e);
+                }
+            }
+        };
 
-                    N.webview_return($pointer, seq, false, _WebviewUtil.forceSafeChars(result));
-                } catch (Throwable e) {
-                    e.printStackTrace();
+        this.bindings.put(name, callback);
+        N.webview_bind($pointer, name, callback, 0);
+    }
 
-                    String exceptionJson = '"' + _WebviewUtil.jsonEscape(_WebviewUtil.getExceptionStack(e)) + '"';
+    /**
+     * Binds a function whose result is completed later, e.g by I/O. The handler
+     * returns right away and the call is answered once the future completes, so
+     * slow calls don't hold up the event loop and many of them can overlap.
+     * 
+     * @implNote         This get's called AFTER window.load.
+     * 
+     * @param    name    The name to be used for the function, e.g "foo" to get
+     *                   foo().
+     * @param    handler The callback handler, accepts a JsonArray (which are all
+     *                   arguments passed to the function()) and returns a future
+     *                   of the JSON result (the future may be null, for no
+     *                   result). Exceptions, thrown or completed with, are
+     *                   automatically passed back to JavaScript.
+     * @param    async   Whether or not to run the handler itself off of the UI
+     *                   thread, on the bind executor.
+     * 
+     * @see              #bind(String, WebviewBindCallback, boolean)
+     */
+    public void bindFuture(@NonNull String name, @NonNull WebviewFutureBindCallback handler, boolean async) {
+        BindCallback callback = new BindCallback() {
+            @Override
+            public void callback(long seq, String req, long arg) {
+                if (!async) {
+                    handleFutureBindRequest(seq, req, handler);
+                    return;
+                }
 
-                    N.webview_return($pointer, seq, true, exceptionJson);
+                try {
+                    bindExecutor.execute(() -> handleFutureBindRequest(seq, req, handler));
+                } catch (RejectedExecutionException e) {
+                    returnBindError(seq, e);
                 }
             }
-        }, 0);
+        };
+
+        this.bindings.put(name, callback);
+        N.webview_bind($pointer, name, callback, 0);
+    }
+
+    private void handleFutureBindRequest(long seq, String req, WebviewFutureBindCallback handler) {
+        CompletionStage<String> stage;
+        try {
+            stage = handler.apply(_JsonEncoder.encode(req, this.wireEncoding.safe));
+        } catch (Throwable e) {
+            this.dispatch(() -> this.returnBindError(seq, e));
+            return;
+        }
+
+        if (stage == null) {
+            stage = CompletableFuture.completedFuture(null);
+        }
+
+        // The future may complete on any thread, so we always go through dispatch.
+        stage.whenComplete((json, e) -> {
+            if (e != null) {
+                Throwable cause = ((e instanceof CompletionException) && (e.getCause() != null)) ? e.getCause() : e;
+                this.dispatch(() -> this.returnBindError(seq, cause));
+                return;
+            }
+
+            Memory result;
+            try {
+                result = _JsonEncoder.encodeToMemory(json == null ? "null" : json, this.wireEncoding.safe);
+            } catch (Throwable t) {
+                this.dispatch(() -> this.returnBindError(seq, t));
+                return;
+            }
+
+            this.dispatch(() -> N.webview_return($pointer, seq, false, result));
+        });
+    }
+
+    private void handleBindRequest(long seq, String req, WebviewBindCallback handler, boolean viaDispatch) {
+        Memory result;
+
+        try {
+            String json = handler.apply(_JsonEncoder.encode(req, this.wireEncoding.safe));
+            if (json == null) {
+                json = "null";
+            }
+
+            result = _JsonEncoder.encodeToMemory(json, this.wireEncoding.safe);
+        } catch (Throwable e) {
+            if (viaDispatch) {
+                this.dispatch(() -> this.returnBindError(seq, e));
+            } else {
+                this.returnBindError(seq, e);
+            }
+            return;
+        }
+
+        if (viaDispatch) {
+            this.dispatch(() -> N.webview_return($pointer, seq, false, result));
+        } else {
+            N.webview_return($pointer, seq, false, result);
+        }
+    }
+
+    private void returnBindError(long seq, Throwable e) {
+        e.printStackTrace();
+
+        String exceptionJson = '"' + _JsonEncoder.encode(_WebviewUtil.getExceptionStack(e), this.wireEncoding.json) + '"';
+
+        N.webview_return($pointer, seq, true, exceptionJson);
     }
 
     /**
@@ -294,18 +712,21 @@ public class Webview implements Closeable, Runnable {
      */
     public void unbind(@NonNull String name) {
         N.webview_unbind($pointer, name);
+        this.bindings.remove(name);
     }
 
     /**
      * Executes an event on the event thread.
      * 
+     * @implNote Events are queued and executed in order, in batches. Only the
+     *           first event queued after the queue empties wakes up the native
+     *           event loop.
+     * 
      * @deprecated Use this only if you absolutely know what you're doing.
      */
     @Deprecated
     public void dispatch(@NonNull Runnable handler) {
-        N.webview_dispatch($pointer, ($pointer, arg) -> {
-            handler.run();
-        }, 0);
+        this.dispatchQueue.enqueue(handler);
     }
 
     /**
@@ -0,0 +1,56 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * A script that threw while being evaluated in lean eval mode, mapped back to
+ * its source.
+ * 
+ * @see Webview#setLeanEval(boolean)
+ * @see Webview#setEvalErrorHandler(java.util.function.Consumer)
+ */
+public class WebviewEvalException extends Exception {
+    private static final long serialVersionUID = 2816353540218562164L;
+
+    /**
+     * The id the script was registered under.
+     */
+    private final @Getter long scriptId;
+
+    /**
+     * The source of the script, or null if it's no longer remembered.
+     */
+    private final @Getter @Nullable String source;
+
+    WebviewEvalException(long scriptId, String jsError, @Nullable String source) {
+        super(String.format("An error occurred whilst evaluating script #%d: %s", scriptId, jsError));
+        this.scriptId = scriptId;
+        this.source = source;
+    }
+
+}
@@ -0,0 +1,200 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters describing the health of a {@link Webview}'s event loop. Unless
+ * noted otherwise all values are cumulative since the Webview was created.
+ * 
+ * @see Webview#getMetrics()
+ */
+public class WebviewMetrics {
+    private final IntSupplier queueDepth;
+
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final LongAdder tasksDispatched = new LongAdder();
+
+    private final LongAdder drains = new LongAdder();
+    private final LongAdder tasksExecuted = new LongAdder();
+    private final LongAdder totalDrainNanos = new LongAdder();
+    private final AtomicLong maxDrainNanos = new AtomicLong();
+
+    private final LongAdder evalBatches = new LongAdder();
+    private final LongAdder evalBatchedScripts = new LongAdder();
+    private final AtomicLong maxEvalBatchSize = new AtomicLong();
+    private final LongAdder totalEvalFlushNanos = new LongAdder();
+    private final AtomicLong maxEvalFlushNanos = new AtomicLong();
+
+    private final LongAdder evalErrors = new LongAdder();
+
+    WebviewMetrics(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    void recordEnqueue(int depth) {
+        this.tasksDispatched.increment();
+        updateMax(this.maxQueueDepth, depth);
+    }
+
+    void recordDrain(int executed, long nanos) {
+        this.drains.increment();
+        this.tasksExecuted.add(executed);
+        this.totalDrainNanos.add(nanos);
+        updateMax(this.maxDrainNanos, nanos);
+    }
+
+    void recordEvalBatch(int scripts, long nanos) {
+        this.evalBatches.increment();
+        this.evalBatchedScripts.add(scripts);
+        this.totalEvalFlushNanos.add(nanos);
+        updateMax(this.maxEvalBatchSize, scripts);
+        updateMax(this.maxEvalFlushNanos, nanos);
+    }
+
+    void recordEvalError() {
+        this.evalErrors.increment();
+    }
+
+    /**
+     * @return the amount of tasks currently waiting to be executed on the UI
+     *         thread.
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.getAsInt();
+    }
+
+    /**
+     * @return the highest queue depth ever observed.
+     */
+    public long getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    /**
+     * @return the amount of tasks that have been handed to
+     *         {@link Webview#dispatch(Runnable)}.
+     */
+    public long getTasksDispatched() {
+        return this.tasksDispatched.sum();
+    }
+
+    /**
+     * @return the amount of tasks that have been executed on the UI thread.
+     */
+    public long getTasksExecuted() {
+        return this.tasksExecuted.sum();
+    }
+
+    /**
+     * @return the amount of times the UI thread has woken up to drain the queue.
+     */
+    public long getDrains() {
+        return this.drains.sum();
+    }
+
+    /**
+     * @return the total time spent draining the queue, in nanoseconds.
+     */
+    public long getTotalDrainNanos() {
+        return this.totalDrainNanos.sum();
+    }
+
+    /**
+     * @return the longest single drain, in nanoseconds.
+     */
+    public long getMaxDrainNanos() {
+        return this.maxDrainNanos.get();
+    }
+
+    /**
+     * @return the amount of batches sent to the engine.
+     * 
+     * @see    Webview#setEvalBatching(boolean)
+     */
+    public long getEvalBatches() {
+        return this.evalBatches.sum();
+    }
+
+    /**
+     * @return the amount of scripts sent as part of a batch.
+     */
+    public long getEvalBatchedScripts() {
+        return this.evalBatchedScripts.sum();
+    }
+
+    /**
+     * @return the largest batch ever sent, in scripts.
+     */
+    public long getMaxEvalBatchSize() {
+        return this.maxEvalBatchSize.get();
+    }
+
+    /**
+     * @return the total time between the first script of a batch being queued
+     *         and the batch being handed to the engine, in nanoseconds.
+     */
+    public long getTotalEvalFlushNanos() {
+        return this.totalEvalFlushNanos.sum();
+    }
+
+    /**
+     * @return the longest time a batch took to be flushed, in nanoseconds.
+     */
+    public long getMaxEvalFlushNanos() {
+        return this.maxEvalFlushNanos.get();
+    }
+
+    /**
+     * @return the amount of errors reported by scripts evaluated in lean mode.
+     * 
+     * @see    Webview#setLeanEval(boolean)
+     */
+    public long getEvalErrors() {
+        return this.evalErrors.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "WebviewMetrics(queueDepth=%d, maxQueueDepth=%d, tasksDispatched=%d, tasksExecuted=%d, drains=%d, totalDrainNanos=%d, maxDrainNanos=%d, "
+                + "evalBatches=%d, evalBatchedScripts=%d, maxEvalBatchSize=%d, totalEvalFlushNanos=%d, maxEvalFlushNanos=%d, evalErrors=%d)",
+            this.getQueueDepth(), this.getMaxQueueDepth(), this.getTasksDispatched(), this.getTasksExecuted(), this.getDrains(), this.getTotalDrainNanos(), this.getMaxDrainNanos(),
+            this.getEvalBatches(), this.getEvalBatchedScripts(), this.getMaxEvalBatchSize(), this.getTotalEvalFlushNanos(), this.getMaxEvalFlushNanos(), this.getEvalErrors()
+        );
+    }
+
+    static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -23,96 +23,31 @@
  */
 package dev.webview.webview_java;
 
-import java.io.File;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import com.sun.jna.Callback;
 import com.sun.jna.Library;
-import com.sun.jna.Native;
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.ptr.PointerByReference;
 
-import co.casterlabs.commons.io.streams.StreamUtil;
-import co.casterlabs.commons.platform.LinuxLibC;
-import co.casterlabs.commons.platform.Platform;
 import lombok.NonNull;
-import lombok.SneakyThrows;
-
-interface WebviewNative extends Library {
-    static final WebviewNative N = runSetup();
-
-    @SneakyThrows
-    private static WebviewNative runSetup() {
-        String[] libraries = null;
-
-        switch (Platform.osDistribution) {
-            case LINUX: {
-                if (LinuxLibC.isGNU()) {
-                    libraries = new String[] {
-                            "/dev/webview/webview_java/natives/" + Platform.archTarget + "/linux/gnu/libwebview.so"
-                    };
-                } else {
-                    libraries = new String[] {
-                            "/dev/webview/webview_java/natives/" + Platform.archTarget + "/linux/musl/libwebview.so"
-                    };
-                }
-                break;
-            }
-
-            case MACOS: {
-                libraries = new String[] {
-                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/macos/libwebview.dylib"
-                };
-                break;
-            }
-
-            case WINDOWS_NT: {
-                libraries = new String[] {
-//                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/windows_nt/WebView2Loader.dll",
-                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/windows_nt/webview.dll"
-                };
-                break;
-            }
-
-            default: {
-                throw new IllegalStateException("Unsupported platform: " + Platform.osDistribution + ":" + Platform.archTarget);
-            }
-        }
-
-        // Extract all of the libs.
-        for (String lib : libraries) {
-            File target = new File(new File(lib).getName());
-            if (target.exists()) {
-                target.delete();
-            }
-            target.deleteOnExit();
-
-            // Copy it to a file.
-            try (InputStream in = WebviewNative.class.getResourceAsStream(lib.toLowerCase())) {
-                byte[] bytes = StreamUtil.toBytes(in);
-                Files.write(target.toPath(), bytes);
-            } catch (Exception e) {
-                if (e.getMessage().contains("used by another")) continue; // Ignore.
-
-                System.err.println("Unable to extract native: " + lib);
-                throw e;
-            }
-
-            System.load(target.getAbsolutePath()); // Load it. This is so Native will be able to link it.
-        }
 
-        System.setProperty("jna.library.path", ".");
+/**
+ * The raw webview API. You shouldn't need this unless you're implementing a
+ * {@link WebviewNativeProvider}.
+ */
+public interface WebviewNative extends Library {
+    /**
+     * Picked up by JNA for every backend, including for the callbacks and
+     * structures declared in here.
+     */
+    static final Map<String, Object> OPTIONS = Collections.singletonMap(Library.OPTION_STRING_ENCODING, "UTF-8");
 
-        return Native.load(
-            "webview",
-            WebviewNative.class,
-            Collections.singletonMap(Library.OPTION_STRING_ENCODING, "UTF-8")
-        );
-    }
+    static final WebviewNative N = _WebviewNativeLoader.load();
 
     static final int WV_HINT_NONE = 0;
     static final int WV_HINT_MIN = 1;
@@ -274,6 +209,16 @@ interface WebviewNative extends Library {
      */
     void webview_return(long $pointer, long seq, boolean isError, String result);
 
+    /**
+     * Same as {@link #webview_return(long, long, boolean, String)}, but takes an
+     * already encoded NUL-terminated string.
+     * 
+     * @param $pointer The instance pointer of the webview
+     * @param isError  Whether or not `result` should be thrown as an exception
+     * @param result   The result (in json)
+     */
+    void webview_return(long $pointer, long seq, boolean isError, Pointer result);
+
     /**
      * Dispatches the callback on the UI thread, only effective while
      * {@link #webview_run(long)} is blocking.
@@ -0,0 +1,54 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+/**
+ * How strings are encoded when they cross the native boundary (bind requests,
+ * bind results and the script copies embedded in error messages).
+ * 
+ * @see Webview#setWireEncoding(WireEncoding)
+ */
+public enum WireEncoding {
+    /**
+     * Every non-ASCII char is sent as a 6 byte {@code \}{@code uXXXX} escape. This
+     * is the default and matches the behavior of older versions.
+     */
+    ASCII(_JsonEncoder.JSON, _JsonEncoder.SAFE),
+
+    /**
+     * Non-ASCII chars are sent as plain UTF-8, only chars that are actually
+     * unsafe (NUL, lone surrogates and, inside of string literals, U+2028/U+2029)
+     * are escaped. This makes payloads for non-latin UIs 2-3x smaller.
+     */
+    UTF8(_JsonEncoder.JSON_UTF8, _JsonEncoder.SAFE_UTF8);
+
+    final _JsonEncoder.Mode json;
+    final _JsonEncoder.Mode safe;
+
+    private WireEncoding(_JsonEncoder.Mode json, _JsonEncoder.Mode safe) {
+        this.json = json;
+        this.safe = safe;
+    }
+
+}
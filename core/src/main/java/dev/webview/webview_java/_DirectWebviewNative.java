@@ -0,0 +1,172 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.io.File;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+import lombok.NonNull;
+
+/**
+ * A {@link WebviewNative} backed by JNA's direct mapping, which binds static
+ * native methods straight to the library's symbols. This skips the reflective
+ * proxy dispatch and per-call argument conversion that interface mapping goes
+ * through.
+ */
+class _DirectWebviewNative implements WebviewNative {
+
+    static WebviewNative load(@NonNull File library) {
+        Native.register(
+            Natives.class,
+            NativeLibrary.getInstance(library.getAbsolutePath(), WebviewNative.OPTIONS)
+        );
+        return new _DirectWebviewNative();
+    }
+
+    private static class Natives {
+        static native long webview_create(boolean debug, PointerByReference window);
+
+        static native long webview_get_window(long $pointer);
+
+        static native void webview_set_html(long $pointer, String html);
+
+        static native void webview_navigate(long $pointer, String url);
+
+        static native void webview_set_title(long $pointer, String title);
+
+        static native void webview_set_size(long $pointer, int width, int height, int hint);
+
+        static native void webview_run(long $pointer);
+
+        static native void webview_destroy(long $pointer);
+
+        static native void webview_terminate(long $pointer);
+
+        static native void webview_eval(long $pointer, String js);
+
+        static native void webview_init(long $pointer, String js);
+
+        static native void webview_bind(long $pointer, String name, BindCallback callback, long arg);
+
+        static native void webview_unbind(long $pointer, String name);
+
+        static native void webview_return(long $pointer, long seq, boolean isError, String result);
+
+        static native void webview_return(long $pointer, long seq, boolean isError, Pointer result);
+
+        static native void webview_dispatch(long $pointer, DispatchCallback callback, long arg);
+
+        static native VersionInfoStruct webview_version();
+    }
+
+    @Override
+    public long webview_create(boolean debug, PointerByReference window) {
+        return Natives.webview_create(debug, window);
+    }
+
+    @Override
+    public long webview_get_window(long $pointer) {
+        return Natives.webview_get_window($pointer);
+    }
+
+    @Override
+    public void webview_set_html(long $pointer, String html) {
+        Natives.webview_set_html($pointer, html);
+    }
+
+    @Override
+    public void webview_navigate(long $pointer, String url) {
+        Natives.webview_navigate($pointer, url);
+    }
+
+    @Override
+    public void webview_set_title(long $pointer, String title) {
+        Natives.webview_set_title($pointer, title);
+    }
+
+    @Override
+    public void webview_set_size(long $pointer, int width, int height, int hint) {
+        Natives.webview_set_size($pointer, width, height, hint);
+    }
+
+    @Override
+    public void webview_run(long $pointer) {
+        Natives.webview_run($pointer);
+    }
+
+    @Override
+    public void webview_destroy(long $pointer) {
+        Natives.webview_destroy($pointer);
+    }
+
+    @Override
+    public void webview_terminate(long $pointer) {
+        Natives.webview_terminate($pointer);
+    }
+
+    @Override
+    public void webview_eval(long $pointer, @NonNull String js) {
+        Natives.webview_eval($pointer, js);
+    }
+
+    @Override
+    public void webview_init(long $pointer, @NonNull String js) {
+        Natives.webview_init($pointer, js);
+    }
+
+    @Override
+    public void webview_bind(long $pointer, @NonNull String name, @NonNull BindCallback callback, long arg) {
+        Natives.webview_bind($pointer, name, callback, arg);
+    }
+
+    @Override
+    public void webview_unbind(long $pointer, @NonNull String name) {
+        Natives.webview_unbind($pointer, name);
+    }
+
+    @Override
+    public void webview_return(long $pointer, long seq, boolean isError, String result) {
+        Natives.webview_return($pointer, seq, isError, result);
+    }
+
+    @Override
+    public void webview_return(long $pointer, long seq, boolean isError, Pointer result) {
+        Natives.webview_return($pointer, seq, isError, result);
+    }
+
+    @Override
+    public void webview_dispatch(long $pointer, @NonNull DispatchCallback callback, long arg) {
+        Natives.webview_dispatch($pointer, callback, arg);
+    }
+
+    @Override
+    public VersionInfoStruct webview_version() {
+        return Natives.webview_version();
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import dev.webview.webview_java.WebviewNative.DispatchCallback;
+import lombok.NonNull;
+
+/**
+ * A lock-free, multi-producer queue of tasks which gets drained on the UI
+ * thread by a single long-lived {@link DispatchCallback}. Only the enqueue that
+ * takes the queue from empty to non-empty wakes up the event loop, every other
+ * producer piggybacks on the drain that is already pending.
+ */
+class _DispatchQueue {
+    /**
+     * The maximum amount of tasks executed per wakeup. Any remainder gets
+     * re-dispatched so that the event loop can handle input and rendering in
+     * between batches.
+     */
+    static final int MAX_BATCH_SIZE = 256;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Consumer<DispatchCallback> wakeup;
+    private final WebviewMetrics metrics;
+
+    // We MUST hold a strong reference to this, otherwise JNA will free the
+    // native trampoline while the event loop still has it queued.
+    private final DispatchCallback callback = ($pointer, arg) -> this.drain();
+
+    /**
+     * @param wakeup  Called with the persistent callback whenever the event loop
+     *                needs to be woken up, e.g
+     *                {@code (cb) -> N.webview_dispatch($pointer, cb, 0)}.
+     * @param metrics Where to record queue depth and drain times.
+     */
+    _DispatchQueue(@NonNull Consumer<DispatchCallback> wakeup, @NonNull WebviewMetrics metrics) {
+        this.wakeup = wakeup;
+        this.metrics = metrics;
+    }
+
+    void enqueue(@NonNull Runnable task) {
+        // We count BEFORE publishing the task, that way `pending` is always >= the
+        // size of the queue and a drain can never miss a task.
+        int depth = this.pending.incrementAndGet();
+        this.tasks.add(task);
+        this.metrics.recordEnqueue(depth);
+
+        if (depth == 1) {
+            this.wakeup.accept(this.callback);
+        }
+    }
+
+    void drain() {
+        long start = System.nanoTime();
+        int executed = 0;
+
+        Runnable task;
+        while ((executed < MAX_BATCH_SIZE) && ((task = this.tasks.poll()) != null)) {
+            executed++;
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+
+        int remaining = this.pending.addAndGet(-executed);
+        this.metrics.recordDrain(executed, System.nanoTime() - start);
+
+        if (remaining > 0) {
+            // Either we hit the batch limit or a producer has counted a task that it
+            // hasn't published yet. Either way, come back on the next tick.
+            this.wakeup.accept(this.callback);
+        }
+    }
+
+    int depth() {
+        return this.pending.get();
+    }
+
+}
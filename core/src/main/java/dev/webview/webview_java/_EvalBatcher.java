@@ -0,0 +1,112 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+/**
+ * Collects the scripts that get queued during a single dispatch tick and hands
+ * them to the engine as one script, rather than one {@code webview_eval} (and
+ * one compilation) per script.
+ */
+class _EvalBatcher {
+    private Batch pending = null;
+
+    private final Consumer<Runnable> dispatcher;
+    private final Consumer<String> evaluator;
+    private final WebviewMetrics metrics;
+
+    /**
+     * The maximum size of a single batch (in chars). Once a batch reaches this
+     * size it is closed off as soon as the next script is queued, and that
+     * script starts a new batch with its own flush. Every batch is evaluated
+     * separately.
+     */
+    volatile int maxBatchSize = 1024 * 1024;
+
+    /**
+     * @param dispatcher Used to schedule a flush on the UI thread, once per
+     *                   batch.
+     * @param evaluator  Called on the UI thread with each batch.
+     * @param metrics    Where to record batch sizes and flush latency.
+     */
+    _EvalBatcher(@NonNull Consumer<Runnable> dispatcher, @NonNull Consumer<String> evaluator, @NonNull WebviewMetrics metrics) {
+        this.dispatcher = dispatcher;
+        this.evaluator = evaluator;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param script A script that handles its own errors, i.e it is already
+     *               wrapped in a try/catch.
+     */
+    void enqueue(@NonNull String script) {
+        Batch created = null;
+
+        synchronized (this) {
+            if ((this.pending != null) && (this.pending.script.length() + script.length() > this.maxBatchSize)) {
+                // Full, so we close it off now rather than letting it grow until its
+                // flush gets to run. Its flush is already scheduled.
+                this.pending = null;
+            }
+
+            if (this.pending == null) {
+                this.pending = created = new Batch();
+            }
+
+            this.pending.script.append(script).append(";\n");
+            this.pending.count++;
+        }
+
+        if (created != null) {
+            Batch batch = created;
+            this.dispatcher.accept(() -> this.flush(batch));
+        }
+    }
+
+    private void flush(Batch batch) {
+        String script;
+
+        synchronized (this) {
+            // Anything queued after this point will start (and schedule) a new batch.
+            if (this.pending == batch) {
+                this.pending = null;
+            }
+
+            script = batch.script.toString();
+        }
+
+        this.evaluator.accept(script);
+        this.metrics.recordEvalBatch(batch.count, System.nanoTime() - batch.startNanos);
+    }
+
+    private static class Batch {
+        private final long startNanos = System.nanoTime();
+        private final StringBuilder script = new StringBuilder();
+        private int count = 0;
+    }
+
+}
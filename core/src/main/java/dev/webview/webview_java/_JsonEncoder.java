@@ -0,0 +1,334 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.nio.ByteBuffer;
+
+import com.sun.jna.Memory;
+
+import lombok.NonNull;
+
+/**
+ * A table-driven, presized replacement for the old char-by-char escaping. The
+ * common case (nothing to escape) returns the input as-is without allocating,
+ * otherwise the output is built in a reusable thread-local buffer or written
+ * straight into a native {@link Memory} block.
+ */
+class _JsonEncoder {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Buffers larger than this (in chars) are not kept around after use, that
+     * way a single huge payload doesn't pin memory on every thread that has ever
+     * sent one.
+     */
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    /**
+     * Escapes everything that is unsafe inside of a JSON/JavaScript string
+     * literal, as well as all non-ASCII chars.
+     */
+    static final Mode JSON = new Mode(jsonTable(), true, true);
+
+    /**
+     * Escapes NUL and all non-ASCII chars. Used for passing entire JSON documents
+     * across the native boundary.
+     */
+    static final Mode SAFE = new Mode(safeTable(), true, true);
+
+    /**
+     * Like {@link #JSON}, but non-ASCII chars are passed through as UTF-8. Only
+     * lone surrogates and the JavaScript line terminators (U+2028, U+2029) are
+     * escaped.
+     */
+    static final Mode JSON_UTF8 = new Mode(jsonTable(), false, true);
+
+    /**
+     * Like {@link #SAFE}, but non-ASCII chars are passed through as UTF-8. Only
+     * NUL and lone surrogates (which can't be represented in UTF-8) are escaped.
+     */
+    static final Mode SAFE_UTF8 = new Mode(safeTable(), false, false);
+
+    static final class Mode {
+        /**
+         * Replacements for chars < 128, null means the char is passed through.
+         */
+        private final String[] table;
+        private final boolean escapeNonAscii;
+        private final boolean escapeLineSeparators;
+
+        private Mode(String[] table, boolean escapeNonAscii, boolean escapeLineSeparators) {
+            this.table = table;
+            this.escapeNonAscii = escapeNonAscii;
+            this.escapeLineSeparators = escapeLineSeparators;
+        }
+
+        /**
+         * @return the amount of chars at {@code i} that can be passed through as-is
+         *         (2 for a surrogate pair), or 0 if the char must be escaped.
+         */
+        private int passThrough(CharSequence input, int i, char ch) {
+            if (ch < 128) {
+                return (this.table[ch] == null) ? 1 : 0;
+            }
+
+            if (this.escapeNonAscii) {
+                return 0;
+            }
+
+            if (Character.isHighSurrogate(ch)) {
+                boolean isPair = (i + 1 < input.length()) && Character.isLowSurrogate(input.charAt(i + 1));
+                return isPair ? 2 : 0;
+            } else if (Character.isLowSurrogate(ch)) {
+                return 0; // Lone.
+            } else if (this.escapeLineSeparators && ((ch == 0x2028) || (ch == 0x2029))) {
+                return 0;
+            } else {
+                return 1;
+            }
+        }
+
+    }
+
+    /**
+     * @return the encoded string, or the input itself if nothing needed escaping.
+     */
+    static String encode(@NonNull String input, @NonNull Mode mode) {
+        int len = input.length();
+
+        int clean = 0;
+        while (clean < len) {
+            int run = mode.passThrough(input, clean, input.charAt(clean));
+            if (run == 0) break;
+            clean += run;
+        }
+
+        if (clean == len) {
+            return input;
+        }
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.ensureCapacity(len + (len >> 3) + 16);
+        out.append(input, 0, clean);
+
+        encodeFrom(input, clean, out, mode);
+
+        String result = out.toString();
+
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+
+        return result;
+    }
+
+    /**
+     * Appends the encoded form of the input to the given builder.
+     */
+    static void encode(@NonNull CharSequence input, @NonNull StringBuilder out, @NonNull Mode mode) {
+        encodeFrom(input, 0, out, mode);
+    }
+
+    private static void encodeFrom(CharSequence input, int start, StringBuilder out, Mode mode) {
+        String[] table = mode.table;
+
+        for (int i = start, len = input.length(); i < len; i++) {
+            char ch = input.charAt(i);
+
+            if (ch < 128) {
+                String replacement = table[ch];
+
+                if (replacement == null) {
+                    out.append(ch);
+                } else {
+                    out.append(replacement);
+                }
+                continue;
+            }
+
+            switch (mode.passThrough(input, i, ch)) {
+                case 0:
+                    out
+                        .append('\\')
+                        .append('u')
+                        .append(HEX[(ch >> 12) & 0xF])
+                        .append(HEX[(ch >> 8) & 0xF])
+                        .append(HEX[(ch >> 4) & 0xF])
+                        .append(HEX[ch & 0xF]);
+                    break;
+
+                case 2:
+                    out.append(ch).append(input.charAt(++i));
+                    break;
+
+                default:
+                    out.append(ch);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the length of the encoded input in UTF-8 bytes, excluding the NUL
+     *         terminator.
+     */
+    static int encodedLength(@NonNull CharSequence input, @NonNull Mode mode) {
+        String[] table = mode.table;
+        int length = 0;
+
+        for (int i = 0, len = input.length(); i < len; i++) {
+            char ch = input.charAt(i);
+
+            if (ch < 128) {
+                String replacement = table[ch];
+                length += (replacement == null) ? 1 : replacement.length();
+                continue;
+            }
+
+            switch (mode.passThrough(input, i, ch)) {
+                case 0:
+                    length += 6; // A unicode escape.
+                    break;
+
+                case 2:
+                    length += 4;
+                    i++;
+                    break;
+
+                default:
+                    length += (ch < 0x800) ? 2 : 3;
+                    break;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Encodes the input directly into a NUL-terminated UTF-8 native string,
+     * skipping the intermediate String and byte[] that JNA would otherwise
+     * allocate.
+     */
+    static Memory encodeToMemory(@NonNull CharSequence input, @NonNull Mode mode) {
+        int length = encodedLength(input, mode);
+
+        Memory memory = new Memory(length + 1);
+        ByteBuffer out = memory.getByteBuffer(0, length + 1);
+        String[] table = mode.table;
+
+        for (int i = 0, len = input.length(); i < len; i++) {
+            char ch = input.charAt(i);
+
+            if (ch < 128) {
+                String replacement = table[ch];
+
+                if (replacement == null) {
+                    out.put((byte) ch);
+                } else {
+                    for (int r = 0; r < replacement.length(); r++) {
+                        out.put((byte) replacement.charAt(r));
+                    }
+                }
+                continue;
+            }
+
+            switch (mode.passThrough(input, i, ch)) {
+                case 0:
+                    out
+                        .put((byte) '\\')
+                        .put((byte) 'u')
+                        .put((byte) HEX[(ch >> 12) & 0xF])
+                        .put((byte) HEX[(ch >> 8) & 0xF])
+                        .put((byte) HEX[(ch >> 4) & 0xF])
+                        .put((byte) HEX[ch & 0xF]);
+                    break;
+
+                case 2: {
+                    int codePoint = Character.toCodePoint(ch, input.charAt(++i));
+                    out
+                        .put((byte) (0xF0 | (codePoint >> 18)))
+                        .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+                        .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (codePoint & 0x3F)));
+                    break;
+                }
+
+                default:
+                    if (ch < 0x800) {
+                        out
+                            .put((byte) (0xC0 | (ch >> 6)))
+                            .put((byte) (0x80 | (ch & 0x3F)));
+                    } else {
+                        out
+                            .put((byte) (0xE0 | (ch >> 12)))
+                            .put((byte) (0x80 | ((ch >> 6) & 0x3F)))
+                            .put((byte) (0x80 | (ch & 0x3F)));
+                    }
+                    break;
+            }
+        }
+
+        out.put((byte) 0);
+        return memory;
+    }
+
+    private static String unicodeEscape(char ch) {
+        return new String(new char[] {
+                '\\',
+                'u',
+                HEX[(ch >> 12) & 0xF],
+                HEX[(ch >> 8) & 0xF],
+                HEX[(ch >> 4) & 0xF],
+                HEX[ch & 0xF]
+        });
+    }
+
+    private static String[] jsonTable() {
+        String[] table = new String[128];
+
+        for (char ch = 0; ch < 0x20; ch++) {
+            table[ch] = unicodeEscape(ch);
+        }
+
+        table['\n'] = "\\n";
+        table['\t'] = "\\t";
+        table['\r'] = "\\r";
+        table['\b'] = "\\b";
+        table['\f'] = "\\f";
+        table['\\'] = "\\\\";
+        table['"'] = "\\\"";
+
+        return table;
+    }
+
+    private static String[] safeTable() {
+        String[] table = new String[128];
+        table[0] = unicodeEscape((char) 0);
+        return table;
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+import co.casterlabs.commons.io.streams.StreamUtil;
+import co.casterlabs.commons.platform.Platform;
+import lombok.NonNull;
+
+/**
+ * Extracts the bundled natives into a per-user cache, keyed by the SHA-256 of
+ * their contents. A library that has already been extracted is reused as-is
+ * (unless it's in the shared temp directory, see {@link #extract(String)}), and
+ * concurrent processes coordinate through a file lock so that they never see a
+ * half-written library.
+ */
+class _NativeLibraryCache {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Extracts the given resource into the default cache directory, falling back
+     * to the temp directory if the cache directory isn't writable.
+     * 
+     * @return the extracted library.
+     */
+    static File extract(@NonNull String resource) throws IOException {
+        try {
+            return extract(resource, getDefaultCacheRoot());
+        } catch (IOException e) {
+            // The temp directory is shared with other users, who could have created
+            // "our" directory first and planted a library in it. So we only use it
+            // if we own it and nobody else can write to it, and we check the
+            // contents of anything that's already there.
+            File fallback = new File(System.getProperty("java.io.tmpdir"), "webview_java-" + System.getProperty("user.name"));
+
+            if (!isPrivateDirectory(fallback.toPath())) {
+                fallback = Files.createTempDirectory("webview_java-").toFile();
+            }
+
+            return extract(resource, fallback, true);
+        }
+    }
+
+    /**
+     * @return the extracted library.
+     */
+    static File extract(@NonNull String resource, @NonNull File cacheRoot) throws IOException {
+        return extract(resource, cacheRoot, false);
+    }
+
+    /**
+     * @param  verifyExisting whether or not to check the contents of an already
+     *                        extracted library against the resource, rather
+     *                        than trusting it.
+     * 
+     * @return                the extracted library.
+     */
+    private static File extract(String resource, File cacheRoot, boolean verifyExisting) throws IOException {
+        URL url = WebviewNative.class.getResource(resource);
+        if (url == null) {
+            throw new FileNotFoundException("Could not find native: " + resource);
+        }
+
+        // The key is a strong hash of the contents, so two different libraries can
+        // never end up sharing a directory (which a CRC can't promise).
+        byte[] bytes = readAll(url);
+        byte[] digest = sha256Digest(bytes);
+
+        File directory = new File(cacheRoot, "sha256-" + toHex(digest));
+        File target = new File(directory, new File(resource).getName());
+
+        if (target.isFile() && (!verifyExisting || hasDigest(target, digest))) {
+            return target; // Warm start, nothing to do.
+        }
+
+        Files.createDirectories(directory.toPath());
+
+        try (
+            FileChannel lockChannel = FileChannel.open(new File(directory, ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = lockChannel.lock()) {
+            // Another process may have beaten us to it while we were waiting.
+            if (target.isFile() && (!verifyExisting || hasDigest(target, digest))) {
+                return target;
+            }
+
+            // Libraries are only ever moved into place once they've been fully
+            // written, so the existence of the target means it's valid.
+            Path temp = Files.createTempFile(directory.toPath(), target.getName(), ".tmp");
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        return target;
+    }
+
+    private static boolean hasDigest(File file, byte[] expected) throws IOException {
+        return MessageDigest.isEqual(
+            sha256Digest(Files.readAllBytes(file.toPath())),
+            expected
+        );
+    }
+
+    /**
+     * Creates the directory (owner-only) if it doesn't exist.
+     * 
+     * @return whether or not the directory is a real directory (not a link) that
+     *         is owned by us, and that nobody else has access to.
+     */
+    private static boolean isPrivateDirectory(Path directory) {
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+        try {
+            if (posix) {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectory(directory);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Check it below.
+        } catch (IOException e) {
+            return false;
+        }
+
+        try {
+            if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                return false;
+            }
+
+            UserPrincipal us = directory.getFileSystem()
+                .getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+
+            if (!Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(us)) {
+                return false;
+            }
+
+            if (posix) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS);
+                for (PosixFilePermission permission : permissions) {
+                    if (!permission.name().startsWith("OWNER_")) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static byte[] readAll(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return StreamUtil.toBytes(in);
+        }
+    }
+
+    /**
+     * @return the cache root, which can be overridden with the
+     *         {@code webview.cache_dir} system property.
+     */
+    static File getDefaultCacheRoot() {
+        String override = System.getProperty("webview.cache_dir");
+        if (override != null) {
+            return new File(override);
+        }
+
+        String home = System.getProperty("user.home");
+
+        switch (Platform.osDistribution) {
+            case WINDOWS_NT: {
+                String localAppData = System.getenv("LOCALAPPDATA");
+                if (localAppData != null) {
+                    return new File(localAppData, "webview_java");
+                }
+                return new File(home, "AppData/Local/webview_java");
+            }
+
+            case MACOS:
+                return new File(home, "Library/Caches/webview_java");
+
+            default: {
+                String xdgCache = System.getenv("XDG_CACHE_HOME");
+                if (xdgCache != null) {
+                    return new File(xdgCache, "webview_java");
+                }
+                return new File(home, ".cache/webview_java");
+            }
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+
+        return new String(hex);
+    }
+
+    private static byte[] sha256Digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM is required to support SHA-256.
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetbrains.annotations.Nullable;
+
+import lombok.NonNull;
+
+/**
+ * Maps script ids back to their source, so that lean evals only need to send
+ * the id to JavaScript and we can still show the offending source when an error
+ * is reported.
+ */
+class _ScriptRegistry {
+    /**
+     * The amount of eval'd scripts we remember, older ones are forgotten first.
+     */
+    private static final int MAX_EVAL_SCRIPTS = 1024;
+
+    private final AtomicLong idCounter = new AtomicLong();
+
+    private final Map<Long, String> initScripts = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> evalScripts = new LinkedHashMap<Long, String>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return this.size() > MAX_EVAL_SCRIPTS;
+        }
+    };
+
+    /**
+     * Registers a script that gets evaluated once.
+     */
+    long registerEval(@NonNull String source) {
+        long id = this.idCounter.incrementAndGet();
+        synchronized (this.evalScripts) {
+            this.evalScripts.put(id, source);
+        }
+        return id;
+    }
+
+    /**
+     * Registers a script that runs on every page load, these are never forgotten.
+     */
+    long registerInit(@NonNull String source) {
+        long id = this.idCounter.incrementAndGet();
+        this.initScripts.put(id, source);
+        return id;
+    }
+
+    @Nullable
+    String lookup(long id) {
+        String source = this.initScripts.get(id);
+
+        if (source == null) {
+            synchronized (this.evalScripts) {
+                source = this.evalScripts.get(id);
+            }
+        }
+
+        return source;
+    }
+
+}
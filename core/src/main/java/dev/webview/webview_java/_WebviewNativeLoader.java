@@ -0,0 +1,155 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import com.sun.jna.Native;
+
+import co.casterlabs.commons.platform.LinuxLibC;
+import co.casterlabs.commons.platform.Platform;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Extracts the natives and picks the binding backend. The backend can be
+ * chosen with the {@code webview.native.backend} system property:
+ * <ul>
+ * <li>{@code proxy} (default) uses classic JNA interface mapping.</li>
+ * <li>{@code direct} uses JNA direct mapping, which skips the proxy on every
+ * call. It quietly falls back to {@code proxy} if the library can't be
+ * directly mapped.</li>
+ * <li>Anything else is looked up from the {@link WebviewNativeProvider}s on the
+ * classpath, e.g. {@code headless}.</li>
+ * </ul>
+ */
+class _WebviewNativeLoader {
+
+    @SneakyThrows
+    static WebviewNative load() {
+        String backend = System.getProperty("webview.native.backend", "proxy");
+
+        switch (backend) {
+            case "proxy":
+                return loadProxy(extractNatives());
+
+            case "direct": {
+                File library = extractNatives();
+                try {
+                    return _DirectWebviewNative.load(library);
+                } catch (Throwable t) {
+                    return loadProxy(library);
+                }
+            }
+
+            default:
+                return loadProvider(backend);
+        }
+    }
+
+    private static WebviewNative loadProvider(String backend) throws Exception {
+        List<String> available = new ArrayList<>();
+        available.add("direct");
+        available.add("proxy");
+
+        for (WebviewNativeProvider provider : ServiceLoader.load(WebviewNativeProvider.class)) {
+            if (provider.getName().equals(backend)) {
+                return provider.load();
+            }
+            available.add(provider.getName());
+        }
+
+        throw new IllegalArgumentException("Unknown webview.native.backend: " + backend + ", available: " + available);
+    }
+
+    static WebviewNative loadProxy(@NonNull File library) {
+        return Native.load(
+            library.getAbsolutePath(),
+            WebviewNative.class,
+            WebviewNative.OPTIONS
+        );
+    }
+
+    /**
+     * @return the webview library.
+     */
+    static File extractNatives() throws Exception {
+        String[] libraries = null;
+
+        switch (Platform.osDistribution) {
+            case LINUX: {
+                if (LinuxLibC.isGNU()) {
+                    libraries = new String[] {
+                            "/dev/webview/webview_java/natives/" + Platform.archTarget + "/linux/gnu/libwebview.so"
+                    };
+                } else {
+                    libraries = new String[] {
+                            "/dev/webview/webview_java/natives/" + Platform.archTarget + "/linux/musl/libwebview.so"
+                    };
+                }
+                break;
+            }
+
+            case MACOS: {
+                libraries = new String[] {
+                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/macos/libwebview.dylib"
+                };
+                break;
+            }
+
+            case WINDOWS_NT: {
+                libraries = new String[] {
+//                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/windows_nt/WebView2Loader.dll",
+                        "/dev/webview/webview_java/natives/" + Platform.archTarget + "/windows_nt/webview.dll"
+                };
+                break;
+            }
+
+            default: {
+                throw new IllegalStateException("Unsupported platform: " + Platform.osDistribution + ":" + Platform.archTarget);
+            }
+        }
+
+        // Extract all of the libs.
+        File webviewLib = null;
+        for (String lib : libraries) {
+            File target;
+            try {
+                target = _NativeLibraryCache.extract(lib.toLowerCase());
+            } catch (Exception e) {
+                System.err.println("Unable to extract native: " + lib);
+                throw e;
+            }
+
+            System.load(target.getAbsolutePath()); // Load it. This is so Native will be able to link it.
+            webviewLib = target; // The webview library is always last.
+        }
+
+        return webviewLib;
+    }
+
+}
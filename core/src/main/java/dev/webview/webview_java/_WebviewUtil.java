@@ -25,10 +25,32 @@ package dev.webview.webview_java;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.NonNull;
 
 class _WebviewUtil {
+    static final Executor DEFAULT_BIND_EXECUTOR = createDefaultBindExecutor();
+
+    private static Executor createDefaultBindExecutor() {
+        try {
+            // Only available on JDK 21+.
+            return (Executor) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            return Executors.newCachedThreadPool((r) -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                t.setName("Webview Bind Thread - #" + threadCount.incrementAndGet());
+                return t;
+            });
+        }
+    }
 
     static String getExceptionStack(@NonNull Throwable e) {
         StringWriter sw = new StringWriter();
@@ -47,97 +69,54 @@ class _WebviewUtil {
             .replace("\r", "");
     }
 
-    static String jsonEscape(@NonNull String input) {
-        char[] chars = input.toCharArray();
+    /**
+     * Parses a JSON string literal, e.g {@code "a\nb"}.
+     */
+    static String unquoteJsonString(@NonNull String json) {
+        json = json.trim();
 
-        StringBuilder output = new StringBuilder();
+        if ((json.length() < 2) || (json.charAt(0) != '"') || (json.charAt(json.length() - 1) != '"')) {
+            throw new IllegalArgumentException("Not a JSON string: " + json);
+        }
 
-        for (int i = 0; i < chars.length; i++) {
-            char ch = chars[i];
+        StringBuilder out = new StringBuilder(json.length());
 
-            switch (ch) {
-                case 0: {
-                    output.append("\\u0000");
-                    break;
-                }
+        for (int i = 1, end = json.length() - 1; i < end; i++) {
+            char ch = json.charAt(i);
 
-                case '\n': {
-                    output.append("\\n");
-                    break;
-                }
+            if (ch != '\\') {
+                out.append(ch);
+                continue;
+            }
 
-                case '\t': {
-                    output.append("\\t");
+            char escape = json.charAt(++i);
+            switch (escape) {
+                case 'b':
+                    out.append('\b');
                     break;
-                }
-
-                case '\r': {
-                    output.append("\\r");
+                case 'f':
+                    out.append('\f');
                     break;
-                }
-
-                case '\\': {
-                    output.append("\\\\");
+                case 'n':
+                    out.append('\n');
                     break;
-                }
-
-                case '"': {
-                    output.append("\\\"");
+                case 'r':
+                    out.append('\r');
                     break;
-                }
-
-                case '\b': {
-                    output.append("\\b");
+                case 't':
+                    out.append('\t');
                     break;
-                }
-
-                case '\f': {
-                    output.append("\\f");
+                case 'u':
+                    out.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
                     break;
-                }
-
-                default: {
-                    if (ch > 127) {
-                        output.append("\\u").append(String.format("%04x", (int) ch));
-                    } else {
-                        output.append(ch);
-                    }
-
-                    break;
-                }
-            }
-        }
-
-        return output.toString();
-    }
-
-    static String forceSafeChars(@NonNull String input) {
-        char[] chars = input.toCharArray();
-
-        StringBuilder output = new StringBuilder();
-
-        for (int i = 0; i < chars.length; i++) {
-            char ch = chars[i];
-
-            switch (ch) {
-                case 0: {
-                    output.append("\\u0000");
-                    break;
-                }
-
-                default: {
-                    if (ch > 127) {
-                        output.append("\\u").append(String.format("%04x", (int) ch));
-                    } else {
-                        output.append(ch);
-                    }
-
+                default: // " \ /
+                    out.append(escape);
                     break;
-                }
             }
         }
 
-        return output.toString();
+        return out.toString();
     }
 
 }
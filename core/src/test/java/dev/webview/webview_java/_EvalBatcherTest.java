@@ -0,0 +1,87 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class _EvalBatcherTest {
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<String> evals = new ArrayList<>();
+    private final WebviewMetrics metrics = new WebviewMetrics(() -> 0);
+    private final _EvalBatcher batcher = new _EvalBatcher(this.tasks::add, this.evals::add, this.metrics);
+
+    @Test
+    void scriptsQueuedBeforeTheFlushShareOneEval() {
+        this.batcher.enqueue("a()");
+        this.batcher.enqueue("b()");
+        assertEquals(1, this.tasks.size());
+
+        this.runTasks();
+        assertEquals(Arrays.asList("a();\nb();\n"), this.evals);
+        assertEquals(1, this.metrics.getEvalBatches());
+    }
+
+    @Test
+    void aCapOverflowFlushesEachBatchSeparately() {
+        this.batcher.maxBatchSize = 10;
+
+        this.batcher.enqueue("first()");
+        this.batcher.enqueue("second()"); // Doesn't fit, so it starts a new batch.
+        this.batcher.enqueue("third()");
+        assertEquals(3, this.tasks.size());
+
+        // Each dispatched task evals exactly one batch.
+        this.tasks.remove(0).run();
+        assertEquals(Arrays.asList("first();\n"), this.evals);
+
+        this.runTasks();
+        assertEquals(Arrays.asList("first();\n", "second();\n", "third();\n"), this.evals);
+        assertEquals(3, this.metrics.getEvalBatches());
+    }
+
+    @Test
+    void scriptsQueuedAfterAFlushStartANewBatch() {
+        this.batcher.enqueue("a()");
+        this.runTasks();
+
+        this.batcher.enqueue("b()");
+        assertEquals(1, this.tasks.size());
+
+        this.runTasks();
+        assertEquals(Arrays.asList("a();\n", "b();\n"), this.evals);
+    }
+
+    private void runTasks() {
+        while (!this.tasks.isEmpty()) {
+            this.tasks.remove(0).run();
+        }
+    }
+
+}
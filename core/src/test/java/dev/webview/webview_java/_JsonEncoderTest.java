@@ -0,0 +1,132 @@
+/**
+ * MIT LICENSE
+ *
+ * Copyright (c) 2024 Alex Bowles @ Casterlabs
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.webview.webview_java;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+class _JsonEncoderTest {
+    private static final String PAIR = "\uD83D\uDE00"; // U+1F600
+
+    private static final List<_JsonEncoder.Mode> MODES = Arrays.asList(_JsonEncoder.JSON, _JsonEncoder.SAFE);
+    private static final List<_JsonEncoder.Mode> UTF8_MODES = Arrays.asList(_JsonEncoder.JSON_UTF8, _JsonEncoder.SAFE_UTF8);
+    private static final List<_JsonEncoder.Mode> ALL_MODES = Arrays.asList(_JsonEncoder.JSON, _JsonEncoder.SAFE, _JsonEncoder.JSON_UTF8, _JsonEncoder.SAFE_UTF8);
+
+    @Test
+    void cleanInputIsReturnedAsIs() {
+        String input = "Hello, world!";
+        assertSame(input, _JsonEncoder.encode(input, _JsonEncoder.JSON));
+        assertSame(input, _JsonEncoder.encode(input, _JsonEncoder.SAFE));
+    }
+
+    @Test
+    void jsonEscapesQuotesBackslashesAndControlChars() {
+        assertEquals("a\\\"b\\\\c\\nd\\te\\u0001", _JsonEncoder.encode("a\"b\\c\nd\te\u0001", _JsonEncoder.JSON));
+    }
+
+    @Test
+    void safeOnlyEscapesNulAndNonAscii() {
+        assertEquals("{\"a\":\"\n\"}\\u0000\\u00e9", _JsonEncoder.encode("{\"a\":\"\n\"}\u0000\u00E9", _JsonEncoder.SAFE));
+    }
+
+    @Test
+    void nonAsciiIsEscaped() {
+        for (_JsonEncoder.Mode mode : MODES) {
+            assertEquals("caf\\u00e9\\u2028", _JsonEncoder.encode("caf\u00E9\u2028", mode));
+        }
+    }
+
+    @Test
+    void surrogatesAreEscapedOneHalfAtATime() {
+        for (_JsonEncoder.Mode mode : MODES) {
+            assertEquals("\\ud83d\\ude00", _JsonEncoder.encode(PAIR, mode));
+            assertEquals("a\\ud800b", _JsonEncoder.encode("a\uD800b", mode)); // Lone high.
+            assertEquals("\\udc00", _JsonEncoder.encode("\uDC00", mode)); // Lone low.
+        }
+    }
+
+    @Test
+    void utf8ModesPassSurrogatePairsThrough() {
+        for (_JsonEncoder.Mode mode : UTF8_MODES) {
+            assertEquals("a" + PAIR + "\u00E9b", _JsonEncoder.encode("a" + PAIR + "\u00E9b", mode));
+        }
+    }
+
+    @Test
+    void utf8ModesEscapeLoneHighSurrogates() {
+        for (_JsonEncoder.Mode mode : UTF8_MODES) {
+            assertEquals("a\\ud800b", _JsonEncoder.encode("a\uD800b", mode));
+            assertEquals("end\\ud83d", _JsonEncoder.encode("end\uD83D", mode)); // Cut off at the end.
+            assertEquals("\\ud83d\\ud83d" + PAIR, _JsonEncoder.encode("\uD83D\uD83D" + PAIR, mode));
+        }
+    }
+
+    @Test
+    void utf8ModesEscapeLoneLowSurrogates() {
+        for (_JsonEncoder.Mode mode : UTF8_MODES) {
+            assertEquals("\\udc00", _JsonEncoder.encode("\uDC00", mode));
+            assertEquals("\\ude00\\ud83d", _JsonEncoder.encode("\uDE00\uD83D", mode)); // Reversed pair.
+        }
+    }
+
+    @Test
+    void jsonUtf8EscapesLineSeparators() {
+        assertEquals("a\\u2028b\\u2029", _JsonEncoder.encode("a\u2028b\u2029", _JsonEncoder.JSON_UTF8));
+    }
+
+    @Test
+    void appendingMatchesEncoding() {
+        String input = "x\uDC00\"" + PAIR + "\n\uD800";
+
+        for (_JsonEncoder.Mode mode : ALL_MODES) {
+            StringBuilder out = new StringBuilder("prefix:");
+            _JsonEncoder.encode(input, out, mode);
+            assertEquals("prefix:" + _JsonEncoder.encode(input, mode), out.toString());
+        }
+    }
+
+    @Test
+    void encodedLengthAndMemoryMatchTheBytes() {
+        String input = "\uD800a" + PAIR + "\u00E9\u2028\"\u0000\uDC00";
+
+        for (_JsonEncoder.Mode mode : ALL_MODES) {
+            byte[] expected = _JsonEncoder.encode(input, mode).getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, _JsonEncoder.encodedLength(input, mode));
+
+            Memory memory = _JsonEncoder.encodeToMemory(input, mode);
+            assertArrayEquals(expected, memory.getByteArray(0, expected.length));
+            assertEquals(0, memory.getByte(expected.length)); // NUL terminated.
+        }
+    }
+
+}